@@ -0,0 +1,61 @@
+package com.deepseatrawling;
+
+import net.runelite.api.WorldEntity;
+
+import java.util.Arrays;
+
+/*
+ * Every skiff and sloop WorldEntity currently spawned, by the id of its world view. World view ids are small
+ * indices into the client's world entity table, so the slots are plain arrays indexed by id, grown on demand,
+ * and lookups are one bounds check and an array read without boxing.
+ */
+public class BoatTracker {
+
+    public static final int NO_BOAT = -1;
+
+    // By worldViewId; NO_BOAT and null in slots without a boat
+    private int[] types = newTypes(64);
+    private WorldEntity[] entities = new WorldEntity[64];
+
+    public void put(int worldViewId, int type, WorldEntity entity) {
+        if (worldViewId < 0) {
+            return;
+        }
+        if (worldViewId >= types.length) {
+            int capacity = Math.max(types.length * 2, worldViewId + 1);
+            int old = types.length;
+            types = Arrays.copyOf(types, capacity);
+            Arrays.fill(types, old, capacity, NO_BOAT);
+            entities = Arrays.copyOf(entities, capacity);
+        }
+        types[worldViewId] = type;
+        entities[worldViewId] = entity;
+    }
+
+    public void remove(int worldViewId) {
+        if (worldViewId >= 0 && worldViewId < types.length) {
+            types[worldViewId] = NO_BOAT;
+            entities[worldViewId] = null;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(types, NO_BOAT);
+        Arrays.fill(entities, null);
+    }
+
+    // World entity config id of the boat, NO_BOAT if the view is not a boat
+    public int getType(int worldViewId) {
+        return worldViewId >= 0 && worldViewId < types.length ? types[worldViewId] : NO_BOAT;
+    }
+
+    public WorldEntity getEntity(int worldViewId) {
+        return worldViewId >= 0 && worldViewId < entities.length ? entities[worldViewId] : null;
+    }
+
+    private static int[] newTypes(int capacity) {
+        int[] types = new int[capacity];
+        Arrays.fill(types, NO_BOAT);
+        return types;
+    }
+}
@@ -0,0 +1,44 @@
+package com.deepseatrawling;
+
+import net.runelite.api.Client;
+
+import java.util.Arrays;
+
+/*
+ * Tracks every client value that feeds the scene-to-canvas projection. The revision changes
+ * whenever any of them did, so projected geometry can be reused while it stays the same.
+ */
+public class CameraState {
+
+    private int[] key = new int[12];
+    private int[] scratch = new int[12];
+    private int revision;
+
+    // Re-reads the camera; returns true if it moved since the last call
+    public boolean update(Client client) {
+        int[] next = scratch;
+        next[0] = client.getCameraX();
+        next[1] = client.getCameraY();
+        next[2] = client.getCameraZ();
+        next[3] = client.getCameraYaw();
+        next[4] = client.getCameraPitch();
+        next[5] = client.getScale();
+        next[6] = client.getViewportXOffset();
+        next[7] = client.getViewportYOffset();
+        next[8] = client.getViewportWidth();
+        next[9] = client.getViewportHeight();
+        next[10] = client.getCanvasWidth();
+        next[11] = client.getCanvasHeight();
+        if (Arrays.equals(next, key)) {
+            return false;
+        }
+        scratch = key;
+        key = next;
+        revision++;
+        return true;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+}
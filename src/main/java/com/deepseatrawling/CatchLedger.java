@@ -0,0 +1,205 @@
+package com.deepseatrawling;
+
+import java.util.Arrays;
+
+/*
+ * Accounting of every parsed catch: totals by species and by crew member, the most recent catches in a
+ * fixed ring buffer, and exponentially weighted fish-per-hour and fish-per-shoal rates. Memory stays
+ * constant however long the session runs and every getter is O(1). Catches are attributed to the catcher,
+ * not to a net: the catch messages do not say which net the fish went into.
+ */
+public class CatchLedger {
+
+    public static final int HISTORY_SIZE = 256;
+    // Crew slot 0 is the local player and slot 1 collects every crew member named after the table fills
+    public static final int MAX_CREW = 16;
+    public static final int YOU = 0;
+    public static final int OTHER_CREW = 1;
+    private static final int FIRST_NAMED_CREW = 2;
+
+    // Time constant of the fish-per-hour average
+    private static final double RATE_WINDOW_MILLIS = 10 * 60 * 1000;
+    // Weight of the latest shoal in the fish-per-shoal average
+    private static final double SHOAL_ALPHA = 0.3;
+    private static final double MILLIS_PER_HOUR = 60 * 60 * 1000;
+
+    private static final ShoalData.ShoalSpecies[] SPECIES = ShoalData.ShoalSpecies.values();
+
+    private int fishInNets;
+    private long totalFish;
+    private final long[] speciesTotals = new long[SPECIES.length];
+    private final long[] crewTotals = new long[MAX_CREW];
+    private final String[] crewNames = new String[MAX_CREW];
+    private int crewCount = FIRST_NAMED_CREW;
+
+    // Ring buffer of recent catches; species is -1 when no shoal was known
+    private final int[] historyTick = new int[HISTORY_SIZE];
+    private final long[] historyTime = new long[HISTORY_SIZE];
+    private final int[] historyQuantity = new int[HISTORY_SIZE];
+    private final byte[] historySpecies = new byte[HISTORY_SIZE];
+    private final byte[] historyCrew = new byte[HISTORY_SIZE];
+    private int historyNext;
+    private int historyCount;
+
+    // Fish per millisecond, decayed to rateTime
+    private double rate;
+    private long rateTime = -1;
+
+    private int shoalWorldViewId = -1;
+    private int shoalFish;
+    private double fishPerShoal = -1;
+
+    public CatchLedger() {
+        crewNames[YOU] = "You";
+        crewNames[OTHER_CREW] = "Other crew";
+    }
+
+    public void record(int quantity, ShoalData shoal, int crew, int tick, long timeMillis) {
+        int worldViewId = shoal == null ? -1 : shoal.getWorldViewId();
+        if (worldViewId != shoalWorldViewId) {
+            endShoal(shoalWorldViewId);
+            shoalWorldViewId = worldViewId;
+        }
+        shoalFish += quantity;
+
+        fishInNets += quantity;
+        totalFish += quantity;
+        ShoalData.ShoalSpecies species = shoal == null ? null : shoal.getSpecies();
+        if (species != null) {
+            speciesTotals[species.ordinal()] += quantity;
+        }
+        crewTotals[crew] += quantity;
+
+        historyTick[historyNext] = tick;
+        historyTime[historyNext] = timeMillis;
+        historyQuantity[historyNext] = quantity;
+        historySpecies[historyNext] = (byte) (species == null ? -1 : species.ordinal());
+        historyCrew[historyNext] = (byte) crew;
+        historyNext = (historyNext + 1) % HISTORY_SIZE;
+        historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+
+        // Each catch is an impulse into an exponentially decaying rate
+        rate = decayedRate(timeMillis) + quantity / RATE_WINDOW_MILLIS;
+        rateTime = timeMillis;
+    }
+
+    // Crew slot for the catcher of the message just parsed, registering new names while there is room
+    public int crewIndex(CatchMessageParser parser) {
+        if (parser.isOwnCatch()) {
+            return YOU;
+        }
+        for (int i = FIRST_NAMED_CREW; i < crewCount; i++)
+        {
+            if (parser.isCrewName(crewNames[i])) {
+                return i;
+            }
+        }
+        if (crewCount == MAX_CREW) {
+            return OTHER_CREW;
+        }
+        crewNames[crewCount] = parser.getCrewName();
+        return crewCount++;
+    }
+
+    public void emptied() {
+        fishInNets = 0;
+    }
+
+    // Closes the per-shoal tally when the shoal being fished leaves
+    public void endShoal(int worldViewId) {
+        if (worldViewId != shoalWorldViewId || worldViewId == -1) {
+            return;
+        }
+        if (shoalFish > 0) {
+            fishPerShoal = fishPerShoal < 0 ? shoalFish : SHOAL_ALPHA * shoalFish + (1 - SHOAL_ALPHA) * fishPerShoal;
+        }
+        shoalFish = 0;
+        shoalWorldViewId = -1;
+    }
+
+    public void reset() {
+        fishInNets = 0;
+        totalFish = 0;
+        Arrays.fill(speciesTotals, 0);
+        Arrays.fill(crewTotals, 0);
+        Arrays.fill(crewNames, FIRST_NAMED_CREW, MAX_CREW, null);
+        crewCount = FIRST_NAMED_CREW;
+        historyNext = 0;
+        historyCount = 0;
+        rate = 0;
+        rateTime = -1;
+        shoalWorldViewId = -1;
+        shoalFish = 0;
+        fishPerShoal = -1;
+    }
+
+    private double decayedRate(long timeMillis) {
+        if (rateTime < 0) {
+            return 0;
+        }
+        return rate * Math.exp(-Math.max(0, timeMillis - rateTime) / RATE_WINDOW_MILLIS);
+    }
+
+    public int getFishInNets() {
+        return fishInNets;
+    }
+
+    public long getTotalFish() {
+        return totalFish;
+    }
+
+    public long getSpeciesTotal(ShoalData.ShoalSpecies species) {
+        return speciesTotals[species.ordinal()];
+    }
+
+    public int getCrewCount() {
+        return crewCount;
+    }
+
+    public String getCrewName(int crew) {
+        return crewNames[crew];
+    }
+
+    public long getCrewTotal(int crew) {
+        return crewTotals[crew];
+    }
+
+    public double getFishPerHour(long nowMillis) {
+        return decayedRate(nowMillis) * MILLIS_PER_HOUR;
+    }
+
+    // Average fish caught per shoal fished, -1 before the first shoal has been left
+    public double getFishPerShoal() {
+        return fishPerShoal;
+    }
+
+    public int getHistorySize() {
+        return historyCount;
+    }
+
+    // Catches from the most recent (0) backwards
+    private int historyIndex(int age) {
+        return (historyNext - 1 - age + HISTORY_SIZE) % HISTORY_SIZE;
+    }
+
+    public int getHistoryTick(int age) {
+        return historyTick[historyIndex(age)];
+    }
+
+    public long getHistoryTime(int age) {
+        return historyTime[historyIndex(age)];
+    }
+
+    public int getHistoryQuantity(int age) {
+        return historyQuantity[historyIndex(age)];
+    }
+
+    public ShoalData.ShoalSpecies getHistorySpecies(int age) {
+        int species = historySpecies[historyIndex(age)];
+        return species < 0 ? null : SPECIES[species];
+    }
+
+    public int getHistoryCrew(int age) {
+        return historyCrew[historyIndex(age)];
+    }
+}
@@ -0,0 +1,193 @@
+package com.deepseatrawling;
+
+/*
+ * Recognises the trawling game messages in a single pass over the raw chat text, skipping <tags>
+ * as it goes, without regexes, substrings or boxing. One instance is reused for every message;
+ * the details of the last parsed message are read back through the getters.
+ */
+public class CatchMessageParser {
+
+    public enum Result {
+        NONE,
+        CATCH,
+        EMPTIED,
+        TRAWLERS_TRUST,
+        // A catch message whose quantity could not be read
+        UNKNOWN_QUANTITY
+    }
+
+    private static final String EMPTY_NETS = "You empty the nets into the cargo hold.";
+    private static final String EMPTY_NET = "You empty the net into the cargo hold.";
+    private static final String TRAWLERS_TRUST = "Trawler's trust";
+    private static final String OWN_CATCH = "You catch ";
+    private static final String CREW_CATCH = " catches ";
+
+    // Index is the quantity
+    private static final String[] NUMBER_WORDS = {
+            null, "a", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten"
+    };
+
+    private CharSequence message;
+    private int quantity;
+    private boolean ownCatch;
+    private int crewStart;
+    private int crewEnd;
+
+    // Set by matchAt
+    private int matchEnd;
+
+    public Result parse(CharSequence message) {
+        this.message = message;
+        quantity = 0;
+        ownCatch = false;
+        crewStart = crewEnd = 0;
+
+        if (equalsVisible(EMPTY_NETS) || equalsVisible(EMPTY_NET)) {
+            return Result.EMPTIED;
+        }
+
+        // One scan looks for all three phrases, keeping the first match of each
+        int ownEnd = -1;
+        int crewMatchStart = -1;
+        int crewMatchEnd = -1;
+        for (int i = skipTags(0); i < message.length(); i = skipTags(i + 1))
+        {
+            char c = message.charAt(i);
+            if (c == 'T' && matchAt(i, TRAWLERS_TRUST)) {
+                // Another message includes the additional fish caught
+                return Result.TRAWLERS_TRUST;
+            } else if (c == 'Y' && ownEnd < 0 && matchAt(i, OWN_CATCH)) {
+                ownEnd = matchEnd;
+            } else if (c == ' ' && crewMatchStart < 0 && matchAt(i, CREW_CATCH)) {
+                crewMatchStart = i;
+                crewMatchEnd = matchEnd;
+            }
+        }
+
+        int quantityStart;
+        if (ownEnd >= 0) {
+            ownCatch = true;
+            quantityStart = ownEnd;
+        } else if (crewMatchStart >= 0) {
+            crewStart = skipTags(0);
+            crewEnd = crewMatchStart;
+            quantityStart = crewMatchEnd;
+        } else {
+            return Result.NONE;
+        }
+
+        quantity = readQuantity(skipTags(quantityStart));
+        return quantity > 0 ? Result.CATCH : Result.UNKNOWN_QUANTITY;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    // True for "You catch", false for a crew member's "<name> catches"
+    public boolean isOwnCatch() {
+        return ownCatch;
+    }
+
+    // Name of the crew member from the last catch message with tags removed; only allocates when called
+    public String getCrewName() {
+        StringBuilder name = new StringBuilder(crewEnd - crewStart);
+        for (int i = skipTags(crewStart); i < crewEnd; i = skipTags(i + 1))
+        {
+            name.append(message.charAt(i));
+        }
+        return name.toString();
+    }
+
+    // Compares the crew name of the last catch message with name without allocating
+    public boolean isCrewName(String name) {
+        int i = skipTags(crewStart);
+        for (int j = 0; j < name.length(); j++)
+        {
+            if (i >= crewEnd || message.charAt(i) != name.charAt(j)) {
+                return false;
+            }
+            i = skipTags(i + 1);
+        }
+        return i >= crewEnd;
+    }
+
+    // Parses a number word or digits up to the next space, 0 if it is neither
+    private int readQuantity(int start) {
+        int end = start;
+        while (end < message.length() && message.charAt(end) != ' ' && message.charAt(end) != '<')
+        {
+            end++;
+        }
+        if (end == start) {
+            return 0;
+        }
+
+        if (Character.isDigit(message.charAt(start))) {
+            int value = 0;
+            for (int i = start; i < end; i++)
+            {
+                char c = message.charAt(i);
+                if (!Character.isDigit(c) || value > 100_000) {
+                    return 0;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        for (int value = 1; value < NUMBER_WORDS.length; value++)
+        {
+            String word = NUMBER_WORDS[value];
+            if (word.length() != end - start) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < word.length() && matches; i++)
+            {
+                matches = Character.toLowerCase(message.charAt(start + i)) == word.charAt(i);
+            }
+            if (matches) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    private boolean equalsVisible(String literal) {
+        return matchAt(skipTags(0), literal) && skipTags(matchEnd) == message.length();
+    }
+
+    // Compares literal with the visible text starting at raw index start, setting matchEnd past it
+    private boolean matchAt(int start, String literal) {
+        int i = start;
+        for (int j = 0; j < literal.length(); j++)
+        {
+            i = skipTags(i);
+            if (i >= message.length() || message.charAt(i) != literal.charAt(j)) {
+                return false;
+            }
+            i++;
+        }
+        matchEnd = i;
+        return true;
+    }
+
+    // First raw index at or after i that is not inside a <tag>
+    private int skipTags(int i) {
+        while (i < message.length() && message.charAt(i) == '<')
+        {
+            int close = i + 1;
+            while (close < message.length() && message.charAt(close) != '>')
+            {
+                close++;
+            }
+            if (close >= message.length()) {
+                // Unterminated, treat the '<' as text
+                return i;
+            }
+            i = close + 1;
+        }
+        return i;
+    }
+}
@@ -8,7 +8,6 @@ import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.*;
 import net.runelite.api.gameval.NpcID;
 import net.runelite.api.gameval.VarbitID;
-import net.runelite.client.Notifier;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
@@ -22,8 +21,8 @@ import net.runelite.client.util.ImageUtil;
 import javax.inject.Inject;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
 
 
 @Slf4j
@@ -55,19 +54,43 @@ public class DeepSeaTrawling extends Plugin
 	@Inject
 	private InfoBoxManager infoBoxManager;
 
-    @Inject
-    private Notifier notifier;
-    private boolean notifiedFull = false;
+	@Inject
+	private ShoalRouteRegistry routeRegistry;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private ConfigManager configManager;
+
+	@Inject
+	private NotificationScheduler notifications;
+	// A depth mismatch is only notified when the shoal changed depth within this many ticks
+	private static final int DEPTH_CHANGE_NOTIFY_TICKS = 10;
+	// Furthest a top-level ripple NPC can be from a shoal's centre and still belong to it, in local units
+	private static final int RIPPLE_MATCH_DISTANCE = 4 * Perspective.LOCAL_TILE_SIZE;
+	// A moving shoal this many ticks from its next stop counts as stopping
+	private static final int SHOAL_STOPPING_TICKS = 5;
 
 	private TrawlingNetInfoBox trawlingNetInfoBox;
 
-	public final Set<Integer> trackedShoals = new HashSet<>();
+	// Shoal world view ids enabled in the config
+	public final BitSet trackedShoals = new BitSet();
 
     public final int SKIFF_WORLD_ENTITY_TYPE = 2;
     public final int SLOOP_WORLD_ENTITY_TYPE = 3;
-    public Map<Integer, Integer> boats = new HashMap<>();
+    public final BoatTracker boats = new BoatTracker();
+
+	private final ShoalTracker shoals = new ShoalTracker();
 
-	private ShoalData nearestShoal;
+	// Published for the overlays; rebuilt every tick and before the next frame after an event marks it dirty
+	private volatile TrawlingState state = TrawlingState.EMPTY;
+	private volatile boolean stateDirty = true;
+	private int stateRevision;
+	private final CatchMessageParser catchParser = new CatchMessageParser();
+	private final DepthSchedule depthSchedule = new DepthSchedule();
+	// Learned depths are written back to the config at most this often
+	private static final int DEPTH_SCHEDULE_SAVE_TICKS = 100;
 
     public Map<ShoalData.ShoalSpecies, Color> speciesColours = new EnumMap<>(ShoalData.ShoalSpecies.class);
 
@@ -79,6 +102,37 @@ public class DeepSeaTrawling extends Plugin
 
 	private static final int SHOAL_WORLD_ENTITY_TYPE = 4;
 
+	private static final BitSet PORT_NET_OBJECTS = objectIds(
+			net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET_3X8_PORT,
+			net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET_3X8_PORT,
+			net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET_3X8_PORT,
+			net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET_3X8_PORT);
+
+	private static final BitSet STARBOARD_NET_OBJECTS = objectIds(
+			net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET_3X8_STARBOARD,
+			net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET_3X8_STARBOARD,
+			net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET_3X8_STARBOARD,
+			net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET_3X8_STARBOARD,
+			net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET,
+			net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET,
+			net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET,
+			net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET);
+
+	// Every object id onGameObjectSpawned acts on, so anything else is rejected with a single bit test
+	private static final BitSet TRAWLING_OBJECTS = new BitSet();
+
+	static
+	{
+		TRAWLING_OBJECTS.or(PORT_NET_OBJECTS);
+		TRAWLING_OBJECTS.or(STARBOARD_NET_OBJECTS);
+		for (ShoalData.ShoalSpecies species : ShoalData.ShoalSpecies.values())
+		{
+			TRAWLING_OBJECTS.set(species.getObjectId());
+		}
+	}
+	private static final int SAILING_SIDEPANEL_GROUP = 937;
+	private static final int TOPLEVEL_GROUP = 161;
+
 	public Net[] netList = {
 			new Net(VarbitID.SAILING_SIDEPANEL_BOAT_TRAWLING_NET_0_DEPTH),
 			new Net(VarbitID.SAILING_SIDEPANEL_BOAT_TRAWLING_NET_1_DEPTH)
@@ -95,9 +149,21 @@ public class DeepSeaTrawling extends Plugin
 		trawlingNetInfoBox = new TrawlingNetInfoBox(icon, this, config);
 		infoBoxManager.addInfoBox(trawlingNetInfoBox);
 
-		nearestShoal = null;
+		routeRegistry.loadAsync(executor).whenComplete((ignored, ex) ->
+		{
+			if (ex != null) {
+				log.error("Unable to load shoal routes", ex);
+			}
+		});
+
+		shoals.clear();
+		notifications.reset();
+		ledger.reset();
+		depthSchedule.load(configManager);
 		rebuildTrackedShoals();
         rebuildShoalColours();
+		rebuildOverlayStyles();
+		stateDirty = true;
 		log.info("Deep Sea Trawling Plugin Started");
 
 	}
@@ -113,22 +179,48 @@ public class DeepSeaTrawling extends Plugin
 			infoBoxManager.removeInfoBox(trawlingNetInfoBox);
 			trawlingNetInfoBox = null;
 		}
+		depthSchedule.save(configManager);
 		trackedShoals.clear();
+		shoals.clear();
+		boats.clear();
 		netObjectByIndex[0] = null;
 		netObjectByIndex[1] = null;
+		state = TrawlingState.EMPTY;
 		log.info("Deep Sea Trawling Plugin Stopped");
 	}
 
+	public DepthSchedule getDepthSchedule() {
+		return depthSchedule;
+	}
+
 	public ShoalData getNearestShoal() {
-		return nearestShoal;
+		return shoals.getNearest();
+	}
+
+	public ShoalTracker getShoals() {
+		return shoals;
+	}
+
+	public TrawlingState getState() {
+		return state;
+	}
+
+	private void publishState()
+	{
+		stateDirty = false;
+		state = TrawlingState.build(client, this, ++stateRevision);
+	}
+
+	public CatchLedger getLedger() {
+		return ledger;
 	}
 
 	public final GameObject[] netObjectByIndex = new GameObject[2];
 
-	public int fishQuantity = 0;
+	private final CatchLedger ledger = new CatchLedger();
 
 	@Subscribe
-	public void onWorldEntitySpawned(WorldEntitySpawned event) throws IOException {
+	public void onWorldEntitySpawned(WorldEntitySpawned event) {
 		WorldEntity entity = event.getWorldEntity();
 		WorldEntityConfig cfg = entity.getConfig();
 
@@ -147,14 +239,16 @@ public class DeepSeaTrawling extends Plugin
 
 		int worldViewId = view.getId();
 
-        if(nearestShoal == null && cfg.getId() == SHOAL_WORLD_ENTITY_TYPE)
+        if (cfg.getId() == SHOAL_WORLD_ENTITY_TYPE)
 		{
-			nearestShoal = new ShoalData(worldViewId, entity);
-		} else if (nearestShoal != null && nearestShoal.getWorldViewId() != worldViewId && cfg.getId() == SHOAL_WORLD_ENTITY_TYPE) {
-			nearestShoal = new ShoalData(worldViewId, entity);
+			ShoalData shoal = new ShoalData(worldViewId, entity, routeRegistry);
+			shoal.setCurrent(entity.getLocalLocation());
+			shoals.add(shoal);
+			selectNearestShoal();
 		} else if (cfg.getId() == SKIFF_WORLD_ENTITY_TYPE || cfg.getId() == SLOOP_WORLD_ENTITY_TYPE) {
-            boats.put(worldViewId, cfg.getId());
+            boats.put(worldViewId, cfg.getId(), entity);
         }
+		stateDirty = true;
 	}
 
 	@Subscribe
@@ -167,8 +261,14 @@ public class DeepSeaTrawling extends Plugin
             return;
         }
 
-        boats.remove(entity.getWorldView().getId());
-		//?
+        int worldViewId = entity.getWorldView().getId();
+        if (cfg.getId() == SHOAL_WORLD_ENTITY_TYPE) {
+            shoals.remove(worldViewId);
+            ledger.endShoal(worldViewId);
+            selectNearestShoal();
+        }
+        boats.remove(worldViewId);
+		stateDirty = true;
 	}
 
 	@Subscribe
@@ -176,17 +276,46 @@ public class DeepSeaTrawling extends Plugin
 	{
 		if (e.getNpc().getId() == NpcID.SAILING_SHOAL_RIPPLES)
 		{
-			nearestShoal.setShoalNpc(e.getNpc());
-			nearestShoal.setDepthFromAnimation();
+			ShoalData shoal = shoalForRipples(e.getNpc());
+			if (shoal == null) {
+				return;
+			}
+			shoal.setShoalNpc(e.getNpc());
+			if (shoal.updateDepthFromAnimation(client.getTickCount())) {
+				stateDirty = true;
+			}
 		}
 	}
 
+	@Subscribe
+	public void onAnimationChanged(AnimationChanged e)
+	{
+		if (!(e.getActor() instanceof NPC) || ((NPC) e.getActor()).getId() != NpcID.SAILING_SHOAL_RIPPLES) {
+			return;
+		}
+
+		for (int k = 0; k < shoals.size(); k++)
+		{
+			ShoalData shoal = shoals.get(k);
+			if (shoal.getShoalNpc() == e.getActor() && shoal.updateDepthFromAnimation(client.getTickCount())) {
+				log.debug("Shoal worldViewId={} depth={} tick={}", shoal.getWorldViewId(), shoal.getDepth(), shoal.getDepthChangedTick());
+				stateDirty = true;
+			}
+		}
+	}
+
+	@Subscribe
 	public void onNpcDespawned(NpcDespawned e)
 	{
-		if ( nearestShoal.getShoalNpc() == e.getNpc() )
+		for (int k = 0; k < shoals.size(); k++)
 		{
-			nearestShoal.setShoalNpc(null);
-			nearestShoal.setDepth(ShoalData.ShoalDepth.UNKNOWN);
+			ShoalData shoal = shoals.get(k);
+			if (shoal.getShoalNpc() == e.getNpc())
+			{
+				shoal.setShoalNpc(null);
+				shoal.setDepth(ShoalData.ShoalDepth.UNKNOWN);
+				stateDirty = true;
+			}
 		}
 	}
 
@@ -194,24 +323,28 @@ public class DeepSeaTrawling extends Plugin
 	public void onGameObjectSpawned(GameObjectSpawned event)
 	{
 		GameObject object = event.getGameObject();
-		if(object == null || object.getWorldView() == null) {
+		if (object == null) {
 			return;
 		}
 
-		GameObject obj = event.getGameObject();
-		if (obj == null || obj.getWorldView() == null) return;
+		int id = object.getId();
+		if (id < 0 || !TRAWLING_OBJECTS.get(id)) {
+			return;
+		}
 
-		int id = obj.getId();
+		if (object.getWorldView() == null) return;
 
-		if (client.getLocalPlayer().getWorldView() != null && obj.getWorldView() != null && client.getLocalPlayer().getWorldView() == obj.getWorldView())
+		if (client.getLocalPlayer().getWorldView() != null && object.getWorldView() != null && client.getLocalPlayer().getWorldView() == object.getWorldView())
 		{
 			if (isStarboardNetObject(id)) {
-				netObjectByIndex[0] = obj;
+				netObjectByIndex[0] = object;
+				stateDirty = true;
 				return;
 			}
 
 			if (isPortNetObject(id)) {
-				netObjectByIndex[1] = obj;
+				netObjectByIndex[1] = object;
+				stateDirty = true;
 				return;
 			}
 		}
@@ -221,37 +354,79 @@ public class DeepSeaTrawling extends Plugin
 		}
 
 		int worldViewId = object.getWorldView().getId();
-		ShoalData shoal = nearestShoal;
+		ShoalData shoal = shoalFor(object.getWorldView());
 		if (shoal == null) {
 			return;
 		}
 
+		ObjectComposition composition = client.getObjectDefinition(id);
 		shoal.setSpecies(species);
 		shoal.setShoalObject(object);
-		shoal.setDepthFromAnimation();
+		shoal.setSize(composition == null ? 0 : Math.max(1, Math.max(composition.getSizeX(), composition.getSizeY())));
+		shoal.updateDepthFromAnimation(client.getTickCount());
 		shoal.setCurrent(shoal.getWorldEntity().getLocalLocation());
+		stateDirty = true;
 
 		log.debug("Shoal worldViewId={} species={} objectId={}", worldViewId, species, id);
 	}
 
+	@Subscribe
 	public void onGameObjectDespawned(GameObjectDespawned event) {
 		GameObject obj = event.getGameObject();
 		if (obj == null) return;
 
+		if (netObjectByIndex[0] != obj && netObjectByIndex[1] != obj) return;
+
 		if (netObjectByIndex[0] == obj) netObjectByIndex[0] = null;
 		if (netObjectByIndex[1] == obj) netObjectByIndex[1] = null;
+		stateDirty = true;
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		if (event.getGameState() == GameState.LOADING) {
+			overlay.invalidateScene();
+		}
+	}
+
+	@Subscribe
+	public void onWidgetLoaded(WidgetLoaded event)
+	{
+		if (event.getGroupId() == SAILING_SIDEPANEL_GROUP || event.getGroupId() == TOPLEVEL_GROUP) {
+			widgetOverlay.invalidateWidgets();
+		}
 	}
 
 	@Subscribe
 	public void onGameTick(GameTick tick)
 	{
-        ShoalData shoal = getNearestShoal();
-		if (shoal == null) {
-			return;
+		widgetOverlay.invalidateWidgets();
+
+		WorldView topLevel = client.getTopLevelWorldView();
+		for (int k = 0; k < shoals.size(); k++)
+		{
+			ShoalData shoal = shoals.get(k);
+			LocalPoint current = shoal.getWorldEntity().getLocalLocation();
+			LocalPoint target = shoal.getWorldEntity().getTargetLocation();
+			boolean moving = current != null && target != null && !current.equals(target);
+			shoal.setCurrent(current);
+			shoal.setWasMoving(moving);
+			if (current != null && topLevel != null) {
+				shoal.updateProgress((topLevel.getBaseX() << Perspective.LOCAL_COORD_BITS) + current.getX(),
+						(topLevel.getBaseY() << Perspective.LOCAL_COORD_BITS) + current.getY(), moving, client.getTickCount());
+			}
+			if (moving) {
+				depthSchedule.observe(shoal);
+			}
+		}
+		selectNearestShoal();
+		if (client.getTickCount() % DEPTH_SCHEDULE_SAVE_TICKS == 0) {
+			depthSchedule.save(configManager);
 		}
-		shoal.setDepthFromAnimation();
 
-		shoal.setCurrent(shoal.getWorldEntity().getLocalLocation());
+		publishState();
+		updateNotifications();
 
 /*
 
@@ -287,51 +462,61 @@ public class DeepSeaTrawling extends Plugin
 	{
 		ChatMessageType type = event.getType();
 
-		if (type == ChatMessageType.GAMEMESSAGE || type == ChatMessageType.SPAM)
+		if (type != ChatMessageType.GAMEMESSAGE && type != ChatMessageType.SPAM)
 		{
-            String msg = event.getMessage().replaceAll("<[^>]*>","");
-            String substring = "";
-			if (msg.equals("You empty the nets into the cargo hold.") || msg.equals("You empty the net into the cargo hold.")) {
-                fishQuantity = 0;
-                log.debug("Emptied nets");
-                notifiedFull = false;
-            }
-
-			if (msg.contains("Trawler's trust")) {
-				// Another message includes the additional fish caught
-				return;
-			}
+			return;
+		}
 
-			String substring = "";
-			if (msg.contains("You catch "))
-			{
-				int index = "You catch ".length();
-				substring = msg.substring(index, msg.indexOf(" ", index + 1));
-			} else if (msg.contains(" catches ")) {
-				int index = msg.indexOf(" catches ") + " catches ".length();
-				substring = msg.substring(index, msg.indexOf(" ", index + 1));
-			}
+		switch (catchParser.parse(event.getMessage()))
+		{
+			case EMPTIED:
+				ledger.emptied();
+				log.debug("Emptied nets");
+				stateDirty = true;
+				break;
+			case CATCH:
+				ledger.record(catchParser.getQuantity(), getNearestShoal(), ledger.crewIndex(catchParser),
+						client.getTickCount(), System.currentTimeMillis());
+				stateDirty = true;
+				break;
+			case UNKNOWN_QUANTITY:
+				log.debug("Unrecognised catch quantity: {}", event.getMessage());
+				break;
+			default:
+				break;
+		}
+	}
 
-			if (!substring.equals(""))
-			{
-				fishQuantity += convertToNumber(substring);
-                int totalNetSize = 0;
-                if (netList[0] != null)
-                {
-                    totalNetSize += netList[0].getNetSize();
-                }
-                if (netList[1] != null)
-                {
-                    totalNetSize += netList[1].getNetSize();
-                }
-                if (fishQuantity >= totalNetSize && config.notifyNetFull() && !notifiedFull) {
-                    notifier.notify("Trawling net(s) full! Empty now!");
-                    notifiedFull = true;
-                }
-			}
+
+	@Subscribe
+	public void onBeforeRender(BeforeRender event)
+	{
+		if (stateDirty) {
+			publishState();
 		}
 	}
 
+	// Samples every notification condition from this tick's state; nets are considered together
+	private void updateNotifications()
+	{
+		int tick = client.getTickCount();
+		TrawlingState state = this.state;
+		notifications.update(NotificationScheduler.Type.NET_FULL,
+				config.notifyNetFull() && state.getTotalNetSize() > 0 && state.isNetsFull());
+
+		// The live shoal, since this runs on the client thread and needs more than the overlays draw
+		ShoalData shoal = getNearestShoal();
+		boolean depthChanged = shoal != null && shoal.getDepthChangedTick() >= 0
+				&& tick - shoal.getDepthChangedTick() <= DEPTH_CHANGE_NOTIFY_TICKS;
+		notifications.update(NotificationScheduler.Type.DEPTH_MISMATCH, config.notifyDepthChange() && depthChanged
+				&& (state.isNetWrongDepth(0) || state.isNetWrongDepth(1)));
+
+		int ticksToStop = shoal == null || !shoal.getWasMoving() ? -1 : shoal.getTicksToNextStop();
+		notifications.update(NotificationScheduler.Type.SHOAL_STOPPING, config.notifyShoalStopping()
+				&& ticksToStop >= 0 && ticksToStop <= SHOAL_STOPPING_TICKS);
+
+		notifications.flush(tick);
+	}
 
 	@Subscribe
 	public void onVarbitChanged(VarbitChanged e)
@@ -347,8 +532,83 @@ public class DeepSeaTrawling extends Plugin
 			case VarbitID.SAILING_SIDEPANEL_BOAT_TRAWLING_NET_1_DEPTH:
 				netList[1].setNetDepth(e.getValue());
 				break;
+			default:
+				return;
+		}
+		stateDirty = true;
+
+	}
+
+	// Shoal entities own their object and ripple NPC; null when the view is not a tracked shoal's
+	private ShoalData shoalFor(WorldView view)
+	{
+		return view == null ? null : shoals.find(view.getId());
+	}
+
+	// Ripples spawned in the top-level view belong to the shoal they sit on, if any is close enough
+	private ShoalData shoalForRipples(NPC npc)
+	{
+		WorldView view = npc.getWorldView();
+		ShoalData owner = shoalFor(view);
+		if (owner != null || view == null || !view.isTopLevel()) {
+			return owner;
+		}
+		LocalPoint location = npc.getLocalLocation();
+		if (location == null) {
+			return null;
 		}
 
+		int bestDistance = RIPPLE_MATCH_DISTANCE * RIPPLE_MATCH_DISTANCE;
+		for (int k = 0; k < shoals.size(); k++)
+		{
+			ShoalData shoal = shoals.get(k);
+			LocalPoint current = shoal.getCurrent();
+			if (current == null) {
+				continue;
+			}
+			int distance = localDistanceSq(location, current);
+			if (distance <= bestDistance) {
+				bestDistance = distance;
+				owner = shoal;
+			}
+		}
+		return owner;
+	}
+
+	// Nearest shoal to the player's boat (or the player when not sailing)
+	private void selectNearestShoal()
+	{
+		LocalPoint from = null;
+		Player player = client.getLocalPlayer();
+		if (player != null) {
+			WorldView view = player.getWorldView();
+			WorldEntity boat = view == null ? null : boats.getEntity(view.getId());
+			from = boat != null ? boat.getLocalLocation() : player.getLocalLocation();
+		}
+
+		ShoalData nearest = null;
+		int nearestDistance = Integer.MAX_VALUE;
+		for (int k = 0; k < shoals.size(); k++)
+		{
+			ShoalData shoal = shoals.get(k);
+			LocalPoint current = shoal.getCurrent();
+			if (from == null || current == null) {
+				if (nearest == null) {
+					nearest = shoal;
+				}
+				continue;
+			}
+			int distance = localDistanceSq(from, current);
+			if (distance < nearestDistance) {
+				nearestDistance = distance;
+				nearest = shoal;
+			}
+		}
+
+		if (nearest != shoals.getNearest()) {
+			shoals.setNearest(nearest);
+			stateDirty = true;
+		}
 	}
 
 	public int localDistanceSq(LocalPoint a, LocalPoint b)
@@ -370,32 +630,32 @@ public class DeepSeaTrawling extends Plugin
 
 		if(config.showGiantKrill()) {
 			for (int id : ShoalTypes.GIANT_KRILL.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 		if(config.showHaddock()) {
 			for (int id : ShoalTypes.HADDOCK.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 		if(config.showHalibut()) {
 			for (int id : ShoalTypes.HALIBUT.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 		if(config.showYellowfin()) {
 			for (int id : ShoalTypes.YELLOWFIN.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 		if(config.showBluefin()) {
 			for (int id : ShoalTypes.BLUEFIN.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 		if(config.showMarlin()) {
 			for (int id : ShoalTypes.MARLIN.getIds()) {
-				trackedShoals.add(id);
+				trackedShoals.set(id);
 			}
 		}
 	}
@@ -407,6 +667,8 @@ public class DeepSeaTrawling extends Plugin
 		}
 		rebuildTrackedShoals();
         rebuildShoalColours();
+		rebuildOverlayStyles();
+		stateDirty = true;
 
 		/*
 		StringBuilder builder = new StringBuilder();
@@ -423,49 +685,24 @@ public class DeepSeaTrawling extends Plugin
 		log.info(builder.toString());*/
 	}
 
-	private static final Map<String, Integer> WORD_NUMBERS = Map.of(
-			"a", 1,
-			"two", 2,
-			"three", 3,
-			"four", 4,
-			"five", 5,
-			"six", 6,
-			"seven", 7,
-			"eight", 8,
-			"nine", 9,
-			"ten", 10
-	);
-
-	private int convertToNumber(String s)
-	{
-		s = s.toLowerCase();
-
-		Integer v = WORD_NUMBERS.get(s);
-		if (v != null)
-		{
-			return v;
-		}
-
-		throw new IllegalArgumentException("Unknown quantity: " + s);
-	}
 	public boolean isPortNetObject(int objectId)
 	{
-		return objectId == net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET_3X8_PORT
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET_3X8_PORT
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET_3X8_PORT
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET_3X8_PORT;
+		return objectId >= 0 && PORT_NET_OBJECTS.get(objectId);
 	}
 
 	public boolean isStarboardNetObject(int objectId)
 	{
-		return objectId == net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET_3X8_STARBOARD
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET_3X8_STARBOARD
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET_3X8_STARBOARD
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET_3X8_STARBOARD
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_ROPE_TRAWLING_NET
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_LINEN_TRAWLING_NET
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_HEMP_TRAWLING_NET
-				|| objectId == net.runelite.api.gameval.ObjectID.SAILING_COTTON_TRAWLING_NET;
+		return objectId >= 0 && STARBOARD_NET_OBJECTS.get(objectId);
+	}
+
+	private static BitSet objectIds(int... ids)
+	{
+		BitSet set = new BitSet();
+		for (int id : ids)
+		{
+			set.set(id);
+		}
+		return set;
 	}
 
     private void rebuildShoalColours() {
@@ -482,4 +719,10 @@ public class DeepSeaTrawling extends Plugin
 
     }
 
+	private void rebuildOverlayStyles() {
+		overlay.rebuildStyles();
+		widgetOverlay.rebuildStyles();
+		trawlingNetOverlay.rebuildStyles();
+	}
+
 }
@@ -4,6 +4,7 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
 
 import java.awt.*;
 
@@ -123,6 +124,17 @@ public interface DeepSeaTrawlingConfig extends Config
     )
     default boolean showDirectionArrows() { return true; }
 
+    @Range(max = 104)
+    @ConfigItem(
+            keyName = "routeDrawDistance",
+            name = "Path draw distance",
+            description = "Only draw the path and stops within this many tiles of the shoal (0 = whole scene)",
+            position = 11,
+            section = shoalsSection
+    )
+    default int routeDrawDistance() { return 0; }
+
+    @Range(max = 5)
     @ConfigItem(
             keyName = "diagonalSmoothing",
             name = "Smooth diagonal path prediction",
@@ -144,6 +156,53 @@ public interface DeepSeaTrawlingConfig extends Config
     )
     default PathColourMode pathColourMode() { return PathColourMode.SOLID; }
 
+    @ConfigItem(
+            keyName = "cacheRouteLayer",
+            name = "Cache path layer",
+            description = "Draws the path, arrows and stops into an image that is reused while the camera is still. Helps on slower machines",
+            position = 14,
+            section = shoalsSection
+    )
+    default boolean cacheRouteLayer() { return false; }
+
+    @ConfigItem(
+            keyName = "showStopCountdown",
+            name = "Next stop countdown",
+            description = "Shows the seconds until a moving shoal reaches its next stop, predicted from its speed along the known path",
+            position = 15,
+            section = shoalsSection
+    )
+    default boolean showStopCountdown() { return true; }
+
+    @ConfigItem(
+            keyName = "routeWindow",
+            name = "Only draw nearby path",
+            description = "Draws just the stretch of path around a shoal, from the trail behind it to the lookahead in front, and highlights its next stop",
+            position = 16,
+            section = shoalsSection
+    )
+    default boolean routeWindow() { return false; }
+
+    @Range(max = 100)
+    @ConfigItem(
+            keyName = "routeTrailTiles",
+            name = "Path trail",
+            description = "Tiles of path drawn behind the shoal when only drawing nearby path",
+            position = 17,
+            section = shoalsSection
+    )
+    default int routeTrailTiles() { return 10; }
+
+    @Range(min = 1, max = 200)
+    @ConfigItem(
+            keyName = "routeLookaheadTiles",
+            name = "Path lookahead",
+            description = "Tiles of path drawn ahead of the shoal when only drawing nearby path",
+            position = 18,
+            section = shoalsSection
+    )
+    default int routeLookaheadTiles() { return 40; }
+
     // -------------------- Nets Section -----------------------------------
     enum NetHighlightStyle
     {
@@ -206,6 +265,15 @@ public interface DeepSeaTrawlingConfig extends Config
     )
     default boolean showShoalDepthText() { return true; }
 
+    @ConfigItem(
+            keyName = "preHighlightDepthChange",
+            name = "Highlight upcoming depth changes",
+            description = "Faintly highlights the net button to press a few ticks before the shoal reaches a spot where it has changed depth before",
+            position = 6,
+            section = netsSection
+    )
+    default boolean preHighlightDepthChange() { return true; }
+
     // ---------- Notifications ----------
     @ConfigItem(
             keyName = "notifyNetFull",
@@ -225,6 +293,15 @@ public interface DeepSeaTrawlingConfig extends Config
     )
     default boolean notifyDepthChange() { return true; }
 
+    @ConfigItem(
+            keyName = "notifyShoalStopping",
+            name = "Notify when shoal is about to stop",
+            description = "Shows a RuneLite notification a few ticks before the nearest shoal reaches its next stop",
+            position = 2,
+            section = notifSection
+    )
+    default boolean notifyShoalStopping() { return false; }
+
     // -------------- Colours ---------------------
     @ConfigItem(
             keyName = "fishCounterTextColour",
@@ -7,11 +7,12 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayUtil;
-import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.coords.LocalPoint;
 
 import javax.inject.Inject;
 import java.awt.*;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -21,6 +22,62 @@ public class DeepSeaTrawlingOverlay extends Overlay {
     private final DeepSeaTrawling plugin;
     private final DeepSeaTrawlingConfig config;
 
+    private final RouteGeometry[] geometries =
+            new RouteGeometry[ShoalRouteRegistry.MAX_WORLD_VIEW_ID - ShoalRouteRegistry.MIN_WORLD_VIEW_ID + 1];
+    private final RouteProjectionCache[] projections =
+            new RouteProjectionCache[ShoalRouteRegistry.MAX_WORLD_VIEW_ID - ShoalRouteRegistry.MIN_WORLD_VIEW_ID + 1];
+    private int sceneRevision;
+    private int cameraRevision;
+    private int lastBaseX = -1;
+    private int lastBaseY = -1;
+    private int lastBasePlane = -1;
+    private final CameraState camera = new CameraState();
+    private final double[] pixelsPerTile = new double[projections.length];
+    private final int[] pixelsPerTileRevision = new int[projections.length];
+
+    // Shoals drawn this frame and their projections
+    private ShoalSnapshot[] visibleShoals = new ShoalSnapshot[4];
+    private RouteProjectionCache[] visibleProjections = new RouteProjectionCache[4];
+
+    // Route segments are batched into one path per colour; gradient mode quantises the hue into buckets
+    private static final int GRADIENT_BUCKETS = RouteProjectionCache.GRADIENT_BUCKETS;
+    private final Path2D.Float[] linePaths = new Path2D.Float[GRADIENT_BUCKETS];
+    private final Path2D.Float[] arrowPaths = new Path2D.Float[GRADIENT_BUCKETS];
+
+    private static final Stroke PATH_STROKE = new BasicStroke(1.5f);
+    private static final Stroke OUTLINE_STROKE = new BasicStroke(2);
+    private static final Stroke NEXT_STOP_STROKE = new BasicStroke(4);
+    private static final Color POLYGON_FILL = new Color(0, 0, 0, 50);
+    private static final Color WHITE_FILL = withAlpha(Color.WHITE, 50);
+    private static final Composite AREA_FILL_COMPOSITE = AlphaComposite.SrcOver.derive(50 / 255f);
+    private static final Font LABEL_FONT = FontManager.getRunescapeBoldFont().deriveFont(14f);
+    private static final Color LABEL_BACKGROUND = new Color(0, 0, 0, 140);
+    private static final Color SHALLOW_TEXT = new Color(0, 200, 0);
+    private static final Color MEDIUM_TEXT = new Color(255, 165, 0);
+    private static final Color DEEP_TEXT = new Color(200, 60, 60);
+
+    // Rebuilt from config on ConfigChanged so render() never derives colours or queries the config proxy
+    private final Map<ShoalData.ShoalSpecies, Color> outlineColours = new EnumMap<>(ShoalData.ShoalSpecies.class);
+    private final Map<ShoalData.ShoalSpecies, Color> fillColours = new EnumMap<>(ShoalData.ShoalSpecies.class);
+    private DeepSeaTrawlingConfig.PathColourMode pathColourMode = DeepSeaTrawlingConfig.PathColourMode.SOLID;
+    private boolean showDirectionArrows;
+    private boolean showShoalDepthText;
+    private int routeDrawDistance;
+    private int diagonalSmoothing;
+    private boolean cacheRouteLayer;
+    private Color shoalPathColour = Color.WHITE;
+    private Color specialPathColour = Color.WHITE;
+    private int styleRevision;
+    private final LabelSprite[] depthLabels = new LabelSprite[ShoalData.ShoalDepth.values().length];
+    // Countdown labels by whole seconds; the last one stands for anything longer
+    private final LabelSprite[] countdownLabels = new LabelSprite[100];
+    private boolean showStopCountdown;
+    private boolean routeWindow;
+    private int routeTrailTiles;
+    private int routeLookaheadTiles;
+
+    private final RouteLayerCache routeLayer = new RouteLayerCache();
+
     @Inject
     private DeepSeaTrawlingOverlay(Client client, DeepSeaTrawling plugin, DeepSeaTrawlingConfig config) {
         this.client = client;
@@ -28,70 +85,172 @@ public class DeepSeaTrawlingOverlay extends Overlay {
         this.config = config;
         setPosition(OverlayPosition.DYNAMIC);
         setLayer(OverlayLayer.ABOVE_SCENE);
-    }
-
-    @Override
-    public Dimension render(Graphics2D graphics) {
 
+        for (int i = 0; i < GRADIENT_BUCKETS; i++)
+        {
+            linePaths[i] = new Path2D.Float();
+            arrowPaths[i] = new Path2D.Float();
+        }
+        Arrays.fill(pixelsPerTileRevision, -1);
+    }
 
-        if (plugin.netObjectByIndex[0] != null || plugin.netObjectByIndex[1] != null)
+    public void rebuildStyles()
+    {
+        styleRevision++;
+        outlineColours.clear();
+        fillColours.clear();
+        for (Map.Entry<ShoalData.ShoalSpecies, Color> entry : plugin.speciesColours.entrySet())
         {
-            return null;
+            Color colour = entry.getValue();
+            outlineColours.put(entry.getKey(), withAlpha(colour, 255));
+            fillColours.put(entry.getKey(), withAlpha(colour, 50));
         }
-        ShoalData shoal = plugin.getNearestShoal();
-        if (shoal == null) {
-            return null;
+
+        pathColourMode = config.pathColourMode();
+        showDirectionArrows = config.showDirectionArrows();
+        showShoalDepthText = config.showShoalDepthText();
+        routeDrawDistance = config.routeDrawDistance();
+        diagonalSmoothing = config.diagonalSmoothing();
+        cacheRouteLayer = config.cacheRouteLayer();
+        showStopCountdown = config.showStopCountdown();
+        routeWindow = config.routeWindow();
+        routeTrailTiles = config.routeTrailTiles();
+        routeLookaheadTiles = config.routeLookaheadTiles();
+        if (!cacheRouteLayer) {
+            routeLayer.release();
         }
-        if(!plugin.trackedShoals.contains(shoal.getWorldViewId())) {
-            return null;
+        shoalPathColour = config.shoalPathColour();
+        specialPathColour = config.specialPathColour();
+
+        depthLabels[ShoalData.ShoalDepth.SHALLOW.ordinal()] = label("Shallow", SHALLOW_TEXT);
+        depthLabels[ShoalData.ShoalDepth.MEDIUM.ordinal()] = label("Medium", MEDIUM_TEXT);
+        depthLabels[ShoalData.ShoalDepth.DEEP.ordinal()] = label("Deep", DEEP_TEXT);
+        depthLabels[ShoalData.ShoalDepth.UNKNOWN.ordinal()] = label("?", Color.GRAY);
+        int last = countdownLabels.length - 1;
+        for (int seconds = 0; seconds < last; seconds++) {
+            countdownLabels[seconds] = label(seconds + "s", Color.WHITE);
         }
+        countdownLabels[last] = label(last + "s+", Color.WHITE);
+    }
 
-        GameObject object = shoal.getShoalObject();
-        if (object == null)
-        {
-            LocalPoint localPoint = shoal.getCurrent();
-            if (localPoint != null) {
-                drawArea(graphics, localPoint, 3, Color.WHITE);
-            }
-            return null;
-        }
+    private static LabelSprite label(String text, Color textColour)
+    {
+        return LabelSprite.tag(text, LABEL_FONT, textColour, LABEL_BACKGROUND, 3, 6);
+    }
 
-        LocalPoint localLocation = object.getLocalLocation();
+    private static Color withAlpha(Color colour, int alpha)
+    {
+        return new Color(colour.getRed(), colour.getGreen(), colour.getBlue(), alpha);
+    }
 
-        ObjectComposition composition = client.getObjectDefinition(object.getId());
-        if (composition == null) {
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        TrawlingState state = plugin.getState();
+        if (!state.isShoalsVisible()) {
             return null;
         }
 
-        int sizeX = composition.getSizeX();
-        int sizeY = composition.getSizeY();
-
-        int size = Math.max(sizeX, sizeY);
-        if (size <= 0) {
-            size = 1;
-        }
-        if(plugin.trackedShoals.contains(shoal.getWorldViewId())) {
-            Color baseColour = plugin.speciesColours.getOrDefault(shoal.getSpecies(), Color.WHITE);
+        int drawn = 0;
+        for (int k = 0; k < state.getShoalCount(); k++)
+        {
+            ShoalSnapshot shoal = state.getShoal(k);
 
-            if (config.pathColourMode() == DeepSeaTrawlingConfig.PathColourMode.SOLID && (shoal.getSpecies() == ShoalData.ShoalSpecies.SHIMMERING || shoal.getSpecies() == ShoalData.ShoalSpecies.GLISTENING || shoal.getSpecies() == ShoalData.ShoalSpecies.VIBRANT))
+            if (shoal.getObjectLocation() == null)
             {
-                drawPath(graphics, shoal, config.specialPathColour());
-            } else if (config.pathColourMode() == DeepSeaTrawlingConfig.PathColourMode.SOLID) {
-                drawPath(graphics, shoal, config.shoalPathColour());
-            } else {
-                drawPath(graphics, shoal, Color.WHITE);
+                LocalPoint localPoint = shoal.getCurrent();
+                if (localPoint != null) {
+                    drawArea(graphics, localPoint, 3, Color.WHITE, WHITE_FILL);
+                }
+                continue;
             }
-            drawStopSquares(graphics, shoal, size, baseColour);
 
-            drawArea(graphics, localLocation, size, baseColour);
+            if (shoal.getSize() <= 0) {
+                continue;
+            }
+            RouteProjectionCache projection = projectRoute(shoal, shoal.getSize());
+            if (projection == null) {
+                continue;
+            }
 
-            drawDepthLabel(graphics, shoal, size);
+            if (drawn == visibleShoals.length) {
+                visibleShoals = Arrays.copyOf(visibleShoals, drawn * 2);
+                visibleProjections = Arrays.copyOf(visibleProjections, drawn * 2);
+            }
+            visibleShoals[drawn] = shoal;
+            visibleProjections[drawn] = projection;
+            drawn++;
+        }
+
+        if (cacheRouteLayer) {
+            // Paths, arrows and stops are only re-rasterised when something they depend on changed
+            int width = client.getCanvasWidth();
+            int height = client.getCanvasHeight();
+            if (width > 0 && height > 0) {
+                routeLayer.beginKey();
+                routeLayer.addKey(styleRevision);
+                for (int i = 0; i < drawn; i++)
+                {
+                    ShoalSnapshot shoal = visibleShoals[i];
+                    routeLayer.addKey(shoal.getWorldViewId());
+                    routeLayer.addKey(shoal.getSpecies() == null ? -1 : shoal.getSpecies().ordinal());
+                    routeLayer.addKey(visibleProjections[i].getRevision());
+                    routeLayer.addKey(hiddenStopMask(shoal, visibleProjections[i]));
+                    if (isWindowed(shoal)) {
+                        routeLayer.addKey((int) Math.floor(shoal.getProgress()));
+                        routeLayer.addKey(shoal.getNextStop());
+                    }
+                }
+                if (!routeLayer.isValid(width, height)) {
+                    Graphics2D layer = routeLayer.beginRedraw(graphics, width, height);
+                    drawRoutes(layer, drawn);
+                    routeLayer.finishRedraw(layer);
+                }
+                routeLayer.draw(graphics);
+            }
+        } else {
+            drawRoutes(graphics, drawn);
+        }
+
+        for (int i = 0; i < drawn; i++)
+        {
+            ShoalSnapshot shoal = visibleShoals[i];
+            LocalPoint localLocation = shoal.getObjectLocation();
+            Color baseColour = outlineColours.getOrDefault(shoal.getSpecies(), Color.WHITE);
+            Color fill = fillColours.getOrDefault(shoal.getSpecies(), WHITE_FILL);
+            drawArea(graphics, localLocation, shoal.getSize(), baseColour, fill);
+
+            drawDepthLabel(graphics, shoal, shoal.getSize());
+            drawStopCountdown(graphics, shoal, visibleProjections[i]);
         }
 
         return null;
     }
 
-    private void drawArea(Graphics2D graphics, LocalPoint centerLP, int sizeTiles, Color baseColour)
+    private void drawRoutes(Graphics2D graphics, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            ShoalSnapshot shoal = visibleShoals[i];
+            Color outline = outlineColours.getOrDefault(shoal.getSpecies(), Color.WHITE);
+            Color fill = fillColours.getOrDefault(shoal.getSpecies(), WHITE_FILL);
+            drawRoute(graphics, shoal, visibleProjections[i], outline, fill);
+        }
+    }
+
+    private void drawRoute(Graphics2D graphics, ShoalSnapshot shoal, RouteProjectionCache projection, Color outline, Color fill)
+    {
+        if (pathColourMode == DeepSeaTrawlingConfig.PathColourMode.SOLID && (shoal.getSpecies() == ShoalData.ShoalSpecies.SHIMMERING || shoal.getSpecies() == ShoalData.ShoalSpecies.GLISTENING || shoal.getSpecies() == ShoalData.ShoalSpecies.VIBRANT))
+        {
+            drawPath(graphics, shoal, projection, specialPathColour);
+        } else if (pathColourMode == DeepSeaTrawlingConfig.PathColourMode.SOLID) {
+            drawPath(graphics, shoal, projection, shoalPathColour);
+        } else {
+            drawPath(graphics, shoal, projection, Color.WHITE);
+        }
+        drawStopSquares(graphics, shoal, projection, outline, fill);
+    }
+
+    private void drawArea(Graphics2D graphics, LocalPoint centerLP, int sizeTiles, Color baseColour, Color fill)
     {
         Polygon poly = Perspective.getCanvasTileAreaPoly(client, centerLP, sizeTiles);
         if (poly == null)
@@ -99,167 +258,310 @@ public class DeepSeaTrawlingOverlay extends Overlay {
             return;
         }
 
-        graphics.setStroke(new BasicStroke(2));
-        OverlayUtil.renderPolygon(graphics, poly, baseColour);
+        graphics.setStroke(OUTLINE_STROKE);
+        OverlayUtil.renderPolygon(graphics, poly, baseColour, POLYGON_FILL, OUTLINE_STROKE);
 
-        Color fill = new Color(baseColour.getRed(), baseColour.getGreen(), baseColour.getBlue(), 50);
         Composite old = graphics.getComposite();
-        graphics.setComposite(AlphaComposite.SrcOver.derive(fill.getAlpha() / 255f));
+        graphics.setComposite(AREA_FILL_COMPOSITE);
         graphics.setColor(fill);
         graphics.fill(poly);
         graphics.setComposite(old);
     }
 
-    private void drawPath (Graphics2D path, ShoalData shoal, Color baseColour)
+    private void drawPath (Graphics2D path, ShoalSnapshot shoal, RouteProjectionCache projection, Color baseColour)
     {
-        java.util.List<WorldPoint> points = shoal.getPathPoints();
-        if (points.size() < 2) {
-            return;
+        boolean windowed = isWindowed(shoal);
+        RouteTimeline timeline = shoal.getTimeline();
+        boolean gradient = pathColourMode == DeepSeaTrawlingConfig.PathColourMode.GRADIENT;
+        boolean arrows = showDirectionArrows;
+        int buckets = gradient ? GRADIENT_BUCKETS : 1;
+        for (int bucket = 0; bucket < buckets; bucket++)
+        {
+            linePaths[bucket].reset();
+            arrowPaths[bucket].reset();
         }
 
-        int plane = shoal.getWorldEntity().getWorldView().getPlane();
-
-        path.setStroke(new BasicStroke(1.5f));
-
-        int ARROW_EVERY_N_SEGMENTS = 5;
-        for (int i = 0; i < points.size() - 1; i++)
+        RouteGeometry.Level level = projection.getPath();
+        for (int k = 0; k < projection.getVisibleSegmentCount(); k++)
         {
-            WorldPoint worldPointA = points.get(i);
-            WorldPoint worldPointB = points.get(i+1);
-            if (worldPointA == null || worldPointB == null) {
-                continue;
-            }
-
-            LocalPoint localPointA = LocalPoint.fromWorld(client, worldPointA);
-            LocalPoint localPointB = LocalPoint.fromWorld(client, worldPointB);
-            if (localPointA == null || localPointB == null) {
+            int i = projection.getVisibleSegment(k);
+            if (!projection.isOnScreen(i) || !projection.isOnScreen(i + 1))
+            {
                 continue;
             }
-
-            Point pointA = Perspective.localToCanvas(client, localPointA, plane);
-            Point pointB = Perspective.localToCanvas(client, localPointB, plane);
-            if (pointA == null || pointB == null)
-            {
+            if (windowed && !isInWindow(shoal, timeline.getArc(level.getSourceIndex(i)))) {
                 continue;
             }
 
-            if (config.pathColourMode() == DeepSeaTrawlingConfig.PathColourMode.GRADIENT) {
-                float t = (points.size() <= 1) ? 0f : (i / (float)(points.size() - 1));
-                baseColour = Color.getHSBColor(t, 1.0f, 1.0f);
-            }
+            int ax = projection.getCanvasX(i);
+            int ay = projection.getCanvasY(i);
+            int bx = projection.getCanvasX(i + 1);
+            int by = projection.getCanvasY(i + 1);
 
-            path.setColor(baseColour);
+            int bucket = gradient ? level.getColourBucket(i) : 0;
 
-            path.drawLine(pointA.getX(), pointA.getY(), pointB.getX(), pointB.getY());
+            Path2D.Float line = linePaths[bucket];
+            line.moveTo(ax, ay);
+            line.lineTo(bx, by);
 
-            if (config.showDirectionArrows() && i % ARROW_EVERY_N_SEGMENTS == 0)
+            if (arrows)
             {
-                drawArrow(path, pointA, pointB, baseColour);
+                // Arrow heads sit at fixed arc-length intervals precomputed on the geometry
+                for (int arrow = level.getArrowStart(i); arrow < level.getArrowStart(i + 1); arrow++)
+                {
+                    float t = level.getArrowFraction(arrow);
+                    appendArrow(arrowPaths[bucket], Math.round(ax + (bx - ax) * t), Math.round(ay + (by - ay) * t), bx - ax, by - ay);
+                }
             }
         }
-    }
-
-    private void drawStopSquares(Graphics2D square, ShoalData shoal, int sizeTiles, Color baseColour)
-    {
-        Color outline = new Color(baseColour.getRed(), baseColour.getGreen(), baseColour.getBlue());
-        Color fill = new Color(baseColour.getRed(), baseColour.getGreen(), baseColour.getBlue(), 50);
 
-        for (WorldPoint worldPoint : shoal.getStopPoints())
+        path.setStroke(PATH_STROKE);
+        for (int bucket = 0; bucket < buckets; bucket++)
         {
-            if (worldPoint == null ) {
+            if (linePaths[bucket].getCurrentPoint() == null) {
                 continue;
             }
 
-            LocalPoint localPoint = LocalPoint.fromWorld(client, worldPoint);
+            path.setColor(gradient ? RouteProjectionCache.GRADIENT_COLOURS[bucket] : baseColour);
+            path.draw(linePaths[bucket]);
+            if (arrows) {
+                path.fill(arrowPaths[bucket]);
+            }
+        }
+    }
+
+    private void drawStopSquares(Graphics2D square, ShoalSnapshot shoal, RouteProjectionCache projection, Color outline, Color fill)
+    {
+        int nextStop = -1;
+        if (isWindowed(shoal) && shoal.getNextStop() >= 0) {
+            nextStop = shoal.getTimeline().getStopIndex(shoal.getNextStop());
+        }
+        for (int k = 0; k < projection.getVisibleStopCount(); k++)
+        {
+            int i = projection.getVisibleStop(k);
+            LocalPoint localPoint = projection.getStopLocal(i);
             if (localPoint == null) {
                 continue;
             }
 
-            if (plugin.localDistanceSq(localPoint, shoal.getCurrent()) < 512 * 512 && !shoal.getWasMoving()) {
+            if (isStopHidden(shoal, i, localPoint)) {
                 continue;
             }
 
-            Polygon polygon = Perspective.getCanvasTileAreaPoly(client, localPoint, sizeTiles);
+            Polygon polygon = projection.getStopPolygon(i);
             if (polygon == null) {
                 continue;
             }
 
-            square.setStroke(new BasicStroke(2));
-            OverlayUtil.renderPolygon(square, polygon, outline);
+            Stroke stroke = i == nextStop ? NEXT_STOP_STROKE : OUTLINE_STROKE;
+            square.setStroke(stroke);
+            OverlayUtil.renderPolygon(square, polygon, outline, POLYGON_FILL, stroke);
 
             Composite old = square.getComposite();
-            square.setComposite(AlphaComposite.SrcOver.derive(fill.getAlpha() / 255f));
+            square.setComposite(AREA_FILL_COMPOSITE);
             square.setColor(fill);
             square.fill(polygon);
             square.setComposite(old);
         }
     }
 
-    private void drawArrow(Graphics2D graphics, Point from, Point to, Color colour)
+    // The stop the shoal is currently waiting at is not drawn, nor are stops outside the path window
+    private boolean isStopHidden(ShoalSnapshot shoal, int index, LocalPoint stop)
     {
-        if (from == null || to == null) {
-            return;
+        if (plugin.localDistanceSq(stop, shoal.getCurrent()) < 512 * 512 && !shoal.getWasMoving()) {
+            return true;
+        }
+        if (!isWindowed(shoal)) {
+            return false;
+        }
+        RouteTimeline timeline = shoal.getTimeline();
+        int order = timeline.getStopOrder(index);
+        return order >= 0 && !isInWindow(shoal, timeline.getStopArc(order));
+    }
+
+    private boolean isWindowed(ShoalSnapshot shoal)
+    {
+        return routeWindow && shoal.isOnRoute();
+    }
+
+    // Whether an arc position lies between the trail behind the shoal and the lookahead in front of it.
+    // The shoal's position is taken to the whole tile so the window only moves once per tile
+    private boolean isInWindow(ShoalSnapshot shoal, double position)
+    {
+        RouteTimeline timeline = shoal.getTimeline();
+        double ahead = timeline.distance(Math.floor(shoal.getProgress()), position);
+        return ahead <= routeLookaheadTiles || timeline.getLength() - ahead <= routeTrailTiles;
+    }
+
+    private long hiddenStopMask(ShoalSnapshot shoal, RouteProjectionCache projection)
+    {
+        long mask = 0;
+        for (int k = 0; k < projection.getVisibleStopCount(); k++)
+        {
+            int i = projection.getVisibleStop(k);
+            LocalPoint stop = projection.getStopLocal(i);
+            if (stop != null && isStopHidden(shoal, i, stop)) {
+                mask |= 1L << (i & 63);
+            }
+        }
+        return mask;
+    }
+
+    private RouteProjectionCache projectRoute(ShoalSnapshot shoal, int sizeTiles)
+    {
+        int index = shoal.getWorldViewId() - ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+        if (index < 0 || index >= projections.length) {
+            return null;
         }
 
-        graphics.setColor(colour);
-        graphics.setStroke(new BasicStroke(2));
+        WorldView topLevel = client.getTopLevelWorldView();
+        if (topLevel == null) {
+            return null;
+        }
+        int plane = shoal.getPlane();
+        if (plane < 0) {
+            return null;
+        }
+        refreshViewRevisions(topLevel);
+
+        RouteGeometry geometry = geometries[index];
+        ShoalRoute path = shoal.getPath();
+        if (geometry == null || geometry.getRoute() != path || geometry.getSmoothing() != diagonalSmoothing) {
+            geometry = geometries[index] = RouteGeometry.build(path, diagonalSmoothing);
+        }
+
+        RouteProjectionCache projection = projections[index];
+        if (projection == null) {
+            projection = projections[index] = new RouteProjectionCache();
+        }
+        // Only the part of the route inside the loaded scene, optionally limited to the draw distance around the shoal
+        int minX = topLevel.getBaseX();
+        int minY = topLevel.getBaseY();
+        int maxX = minX + topLevel.getSizeX() - 1;
+        int maxY = minY + topLevel.getSizeY() - 1;
+        LocalPoint shoalLocation = shoal.getCurrent();
+        // A path window reaches no further in a straight line than its longest arc, so it bounds the area too
+        int distance = routeDrawDistance;
+        if (isWindowed(shoal)) {
+            int window = Math.max(routeTrailTiles, routeLookaheadTiles) + 1;
+            distance = distance > 0 ? Math.min(distance, window) : window;
+        }
+        if (distance > 0 && shoalLocation != null) {
+            int shoalX = minX + (shoalLocation.getX() >> Perspective.LOCAL_COORD_BITS);
+            int shoalY = minY + (shoalLocation.getY() >> Perspective.LOCAL_COORD_BITS);
+            minX = Math.max(minX, shoalX - distance);
+            minY = Math.max(minY, shoalY - distance);
+            maxX = Math.min(maxX, shoalX + distance);
+            maxY = Math.min(maxY, shoalY + distance);
+        }
+
+        RouteGeometry.Level level = geometry.levelFor(pixelsPerTile(index, shoalLocation, plane));
+        projection.update(client, topLevel, level, shoal.getStops(), plane, sceneRevision, cameraRevision, sizeTiles,
+                minX, minY, maxX, maxY);
+        return projection;
+    }
 
-        double dx = to.getX() - from.getX();
-        double dy = to.getY() - from.getY();
+    // On-screen length of one tile next to the shoal, re-measured whenever the camera moves
+    private double pixelsPerTile(int index, LocalPoint shoalLocation, int plane)
+    {
+        if (pixelsPerTileRevision[index] == cameraRevision) {
+            return pixelsPerTile[index];
+        }
+        pixelsPerTileRevision[index] = cameraRevision;
+        pixelsPerTile[index] = Double.MAX_VALUE;
+        if (shoalLocation == null) {
+            return pixelsPerTile[index];
+        }
+
+        int height = Perspective.getTileHeight(client, shoalLocation, plane);
+        Point a = Perspective.localToCanvas(client, shoalLocation.getX(), shoalLocation.getY(), height);
+        Point b = Perspective.localToCanvas(client, shoalLocation.getX() + Perspective.LOCAL_TILE_SIZE, shoalLocation.getY(), height);
+        if (a != null && b != null) {
+            pixelsPerTile[index] = Math.hypot(b.getX() - a.getX(), b.getY() - a.getY());
+        }
+        return pixelsPerTile[index];
+    }
+
+    // Bumps the scene revision when the scene base moves and the camera revision when any projection input changes
+    private void refreshViewRevisions(WorldView topLevel)
+    {
+        int baseX = topLevel.getBaseX();
+        int baseY = topLevel.getBaseY();
+        int basePlane = topLevel.getPlane();
+        if (baseX != lastBaseX || baseY != lastBaseY || basePlane != lastBasePlane) {
+            lastBaseX = baseX;
+            lastBaseY = baseY;
+            lastBasePlane = basePlane;
+            sceneRevision++;
+        }
+
+        if (camera.update(client)) {
+            cameraRevision++;
+        }
+    }
+
+    public void invalidateScene()
+    {
+        sceneRevision++;
+        routeLayer.invalidate();
+    }
+
+    private static void appendArrow(Path2D.Float arrows, int toX, int toY, double dx, double dy)
+    {
         double angle = Math.atan2(dy, dx);
 
         int arrowLength = 10;
-        int arrowWidth = 6;
 
         double leftAngle = angle + Math.toRadians(155);
         double rightAngle = angle - Math.toRadians(155);
 
-        int x1 = to.getX() + (int) (Math.cos(leftAngle) * arrowLength);
-        int y1 = to.getY() + (int) (Math.sin(leftAngle) * arrowLength);
+        int x1 = toX + (int) (Math.cos(leftAngle) * arrowLength);
+        int y1 = toY + (int) (Math.sin(leftAngle) * arrowLength);
 
-        int x2 = to.getX() + (int) (Math.cos(rightAngle) * arrowLength);
-        int y2 = to.getY() + (int) (Math.sin(rightAngle) * arrowLength);
+        int x2 = toX + (int) (Math.cos(rightAngle) * arrowLength);
+        int y2 = toY + (int) (Math.sin(rightAngle) * arrowLength);
 
-        int[] xs = { to.getX(), x1, x2 };
-        int[] ys = { to.getY(), y1, y2 };
-
-        graphics.fillPolygon(xs, ys, 3);
+        arrows.moveTo(toX, toY);
+        arrows.lineTo(x1, y1);
+        arrows.lineTo(x2, y2);
+        arrows.closePath();
     }
 
-    private void drawDepthLabel(Graphics2D graphic, ShoalData shoal, int sizeTiles)
+    // Seconds until the shoal reaches its next stop, drawn above that stop while it is on screen
+    private void drawStopCountdown(Graphics2D graphics, ShoalSnapshot shoal, RouteProjectionCache projection)
     {
-        if (!config.showShoalDepthText()) {
+        if (!showStopCountdown || !shoal.getWasMoving()) {
+            return;
+        }
+        int ticks = shoal.getTicksToNextStop();
+        if (ticks < 0) {
             return;
         }
-        ShoalData.ShoalDepth depth = shoal.getDepth();
-        String text;
-        Color textColour;
 
-        switch (depth)
+        int stop = shoal.getTimeline().getStopIndex(shoal.getNextStop());
+        Polygon polygon = null;
+        for (int k = 0; k < projection.getVisibleStopCount() && polygon == null; k++)
         {
-            case SHALLOW:
-                text = "Shallow";
-                textColour = new Color(0, 200, 0);
-                break;
-            case MEDIUM:
-                text = "Medium";
-                textColour = new Color(255, 165, 0);
-                break;
-            case DEEP:
-                text = "Deep";
-                textColour = new Color(200, 60, 60);
-                break;
-            default:
-                text = "?";
-                textColour = Color.GRAY;
-        }
-
-        GameObject object = shoal.getShoalObject();
-        if (object == null) {
+            if (projection.getVisibleStop(k) == stop) {
+                polygon = projection.getStopPolygon(stop);
+            }
+        }
+        if (polygon == null) {
             return;
         }
 
-        LocalPoint centralPoint = object.getLocalLocation();
+        int seconds = Math.min((int) Math.ceil(ticks * 0.6), countdownLabels.length - 1);
+        LabelSprite label = countdownLabels[seconds];
+        Rectangle bounds = polygon.getBounds();
+        label.draw(graphics, bounds.x + (bounds.width - label.getTextWidth()) / 2, bounds.y - 4);
+    }
+
+    private void drawDepthLabel(Graphics2D graphic, ShoalSnapshot shoal, int sizeTiles)
+    {
+        if (!showShoalDepthText) {
+            return;
+        }
+        LocalPoint centralPoint = shoal.getObjectLocation();
         if (centralPoint == null) {
             return;
         }
@@ -273,20 +575,9 @@ public class DeepSeaTrawlingOverlay extends Overlay {
         int anchorX = bounds.x + bounds.width / 2;
         int anchorY = bounds.y;
 
-        graphic.setFont(FontManager.getRunescapeBoldFont().deriveFont( 14f));
-        FontMetrics metrics = graphic.getFontMetrics();
-        int width = metrics.stringWidth(text);
-        int height = metrics.getHeight();
-
-        int x = anchorX - width / 2;
-        int y = anchorY - 8;
-
-        graphic.setColor(new Color(0,0,0,140));
-        graphic.fillRoundRect(x - 3, y - height, width + 6, height, 6, 6);
-
-        graphic.setColor((textColour));
-        graphic.drawString(text, x, y);
-
+        ShoalData.ShoalDepth depth = shoal.getDepth();
+        LabelSprite label = depthLabels[(depth == null ? ShoalData.ShoalDepth.UNKNOWN : depth).ordinal()];
+        label.draw(graphic, anchorX - label.getTextWidth() / 2, anchorY - 8);
     }
 
 }
@@ -2,7 +2,6 @@ package com.deepseatrawling;
 
 import net.runelite.api.Client;
 import net.runelite.api.widgets.Widget;
-import net.runelite.client.Notifier;
 import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
@@ -11,13 +10,10 @@ import net.runelite.api.WorldEntity;
 
 import javax.inject.Inject;
 import java.awt.*;
+import java.util.Arrays;
 
 public class DeepSeaTrawlingWidgetOverlay extends Overlay {
 
-    @Inject
-    private Notifier notifier;
-    private boolean notifiedDepthChange = false;
-
     private static final int SAILING_SIDEPANEL_GROUP = 937;
     private static final int FACILITIES_CONTENT_CLICKLAYER_CHILD = 25;
 
@@ -28,6 +24,13 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
     private static final int PORT_DOWN_INDEX = 45;
     private static final int PORT_UP_INDEX = 46;
 
+    private static final int[] BUTTON_INDICES = {
+            SKIFF_DOWN_INDEX, SKIFF_UP_INDEX, STARBOARD_DOWN_INDEX, STARBOARD_UP_INDEX, PORT_DOWN_INDEX, PORT_UP_INDEX
+    };
+
+    private static final int TOPLEVEL_GROUP = 161;
+    private static final int TOPLEVEL_VIEWPORT_CHILD = 73;
+
     private static final int SKIFF_WORLDVIEW_ID = 2;
     private static final int SLOOP_WORLDVIEW_ID = 3;
 
@@ -35,6 +38,35 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
     private final DeepSeaTrawling plugin;
     private final DeepSeaTrawlingConfig config;
 
+    private static final Stroke HIGHLIGHT_STROKE = new BasicStroke(2);
+    private static final Font LETTER_FONT = FontManager.getRunescapeBoldFont().deriveFont(14f);
+    private static final Color LETTER_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color RAISED_TEXT = new Color(200, 200, 200);
+    private static final Color SHALLOW_TEXT = new Color(80, 255, 80);
+    private static final Color MEDIUM_TEXT = new Color(255, 200, 80);
+    private static final Color DEEP_TEXT = new Color(255, 80, 80);
+
+    // Rebuilt from config on ConfigChanged
+    private boolean showNetDepthText;
+    private boolean showNetWidgetHint;
+    private boolean preHighlightDepthChange;
+    private Color highlightFill = Color.YELLOW;
+    private Color highlightOutline = Color.YELLOW;
+    private Color upcomingFill = Color.YELLOW;
+    private Color upcomingOutline = Color.YELLOW;
+    private final LabelSprite[] depthLetters = new LabelSprite[Net.NetDepth.values().length];
+
+    // On-screen bounds of the net buttons by child index, null while hidden or outside the viewport.
+    // Resolved at most once after a widget load, game tick, canvas resize or panel show/hide instead of every frame
+    private final Rectangle[] buttonBounds = new Rectangle[PORT_UP_INDEX + 1];
+    private boolean widgetsDirty = true;
+    // Resizing the client re-lays out the interface between ticks
+    private int resolvedCanvasWidth = -1;
+    private int resolvedCanvasHeight = -1;
+    // Switching side panel tabs hides the panel without any of the above, so its hidden chain is re-read every frame
+    private Widget panel;
+    private boolean panelShown;
+
     enum Direction {
         UP,
         DOWN
@@ -50,65 +82,125 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
         setLayer(OverlayLayer.ABOVE_WIDGETS);
     }
 
+    public void rebuildStyles()
+    {
+        showNetDepthText = config.showNetDepthText();
+        showNetWidgetHint = config.showNetWidgetHint();
+        preHighlightDepthChange = config.preHighlightDepthChange();
+        Color highlight = config.uiHighlightColour();
+        highlightFill = new Color(highlight.getRed(), highlight.getGreen(), highlight.getBlue(), 120);
+        highlightOutline = new Color(highlight.getRed(), highlight.getGreen(), highlight.getBlue(), 220);
+        upcomingFill = new Color(highlight.getRed(), highlight.getGreen(), highlight.getBlue(), 40);
+        upcomingOutline = new Color(highlight.getRed(), highlight.getGreen(), highlight.getBlue(), 110);
+
+        // Letters with their background pill are rendered once rather than laid out every frame
+        for (Net.NetDepth depth : Net.NetDepth.values())
+        {
+            depthLetters[depth.ordinal()] = LabelSprite.pill(depthLetter(depth), LETTER_FONT, colorForDepth(depth), LETTER_BACKGROUND, 6, 4, 10);
+        }
+    }
+
+    public void invalidateWidgets()
+    {
+        widgetsDirty = true;
+    }
+
+    private void resolveWidgets()
+    {
+        widgetsDirty = false;
+        resolvedCanvasWidth = client.getCanvasWidth();
+        resolvedCanvasHeight = client.getCanvasHeight();
+        Arrays.fill(buttonBounds, null);
+
+        Widget parent = client.getWidget(SAILING_SIDEPANEL_GROUP, FACILITIES_CONTENT_CLICKLAYER_CHILD);
+        panel = parent;
+        panelShown = isShown(parent);
+        if (!panelShown) return;
+
+        Widget viewport = client.getWidget(TOPLEVEL_GROUP, TOPLEVEL_VIEWPORT_CHILD);
+        if (viewport == null) return;
+        Rectangle viewportBounds = viewport.getBounds();
+        if (viewportBounds == null) return;
+
+        for (int childId : BUTTON_INDICES)
+        {
+            Widget button = parent.getChild(childId);
+            if (button == null || button.isHidden()) continue;
+
+            Rectangle bounds = button.getBounds();
+            if (bounds == null || bounds.width <= 0 || bounds.height <= 0 || !viewportBounds.intersects(bounds)) continue;
+            buttonBounds[childId] = bounds;
+        }
+    }
+
+    private static boolean isShown(Widget widget)
+    {
+        if (widget == null) {
+            return false;
+        }
+        for (Widget widgetParent = widget; widgetParent != null; widgetParent = widgetParent.getParent())
+        {
+            if (widgetParent.isHidden()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public Dimension render(Graphics2D graphics)
     {
-        if (plugin.boats.get(client.getLocalPlayer().getWorldView().getId()) != null) {
-            int playerBoat = plugin.boats.get(client.getLocalPlayer().getWorldView().getId());
-            if (config.showNetDepthText()) {
+        if (widgetsDirty || client.getCanvasWidth() != resolvedCanvasWidth || client.getCanvasHeight() != resolvedCanvasHeight
+                || (panel != null && isShown(panel) != panelShown)) {
+            resolveWidgets();
+        }
+
+        TrawlingState state = plugin.getState();
+        int playerBoat = state.getPlayerBoatType();
+        if (playerBoat != TrawlingState.NO_BOAT) {
+            if (showNetDepthText) {
                 if (playerBoat == SKIFF_WORLDVIEW_ID) {
-                    drawNetDepthLetter(graphics, 0);
+                    drawNetDepthLetter(graphics, state, playerBoat, 0);
                 } else if (playerBoat == SLOOP_WORLDVIEW_ID) {
-                    drawNetDepthLetter(graphics, 0);
-                    drawNetDepthLetter(graphics, 1);
+                    drawNetDepthLetter(graphics, state, playerBoat, 0);
+                    drawNetDepthLetter(graphics, state, playerBoat, 1);
                 }
         }
     }
-       ShoalData shoal = plugin.getNearestShoal();
-       if (shoal != null && shoal.getDepth() != ShoalData.ShoalDepth.UNKNOWN)
+       int desired = state.getDesiredDepth();
+       int upcoming = state.getUpcomingDepth();
+       if (preHighlightDepthChange && showNetWidgetHint && upcoming >= 1 && upcoming != desired)
        {
-           int desired = ShoalData.ShoalDepth.asInt(shoal.getDepth());
-           if (desired < 1) {
-               return null;
+           // The shoal is about to reach a spot where it changed depth before
+           for (int netIndex = 0; netIndex < 2; netIndex++)
+           {
+               int current = state.getNetDepth(netIndex);
+               if (current > 0 && current != upcoming && !state.isNetWrongDepth(netIndex)) {
+                   Direction direction = current < upcoming ? Direction.DOWN : Direction.UP;
+                   highlightNetButton(graphics, playerBoat, netIndex, direction, upcomingFill, upcomingOutline);
+               }
            }
-
+       }
+       if (desired >= 1)
+       {
            for (int netIndex = 0; netIndex < 2; netIndex++)
            {
-               int current = Net.NetDepth.asInt(plugin.netList[netIndex].getNetDepth());
-               if (current <= 0 || current == desired) {
-                   notifiedDepthChange = false;
+               int current = state.getNetDepth(netIndex);
+               if (!state.isNetWrongDepth(netIndex)) {
                    continue;
                }
-
-               if (!notifiedDepthChange && config.notifyDepthChange()) {
-                   notifier.notify("Trawling net(s) full! Empty now!");
-                   notifiedDepthChange = true;
-               }
-               if (config.showNetWidgetHint()) {
+               if (showNetWidgetHint) {
                    Direction direction = current < desired ? Direction.DOWN : Direction.UP;
-                   highlightNetButton(graphics, netIndex, direction);
+                   highlightNetButton(graphics, playerBoat, netIndex, direction, highlightFill, highlightOutline);
                }
            }
        }
         return null;
     }
 
-    private void highlightNetButton(Graphics2D g, int netIndex, Direction direction)
+    private void highlightNetButton(Graphics2D g, int shipType, int netIndex, Direction direction, Color fill, Color outline)
     {
-        Widget parent = client.getWidget(SAILING_SIDEPANEL_GROUP , FACILITIES_CONTENT_CLICKLAYER_CHILD);
-        if (parent == null) return;
-        boolean hidden = false;
-        for (Widget widgetParent = parent; widgetParent != null; widgetParent = widgetParent.getParent())
-        {
-            if (widgetParent.isHidden()) {
-                hidden = true;
-            }
-        }
-
-        if (plugin.boats.get(client.getLocalPlayer().getWorldView().getId()) == null) {
-            return;
-        }
-        int shipType = plugin.boats.get(client.getLocalPlayer().getWorldView().getId());
+        if (shipType == TrawlingState.NO_BOAT) return;
 
         int childId = -1;
         if (netIndex == 0) {
@@ -122,44 +214,23 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
         } else {
             return;
         }
-        Widget viewport = client.getWidget(161, 73);
-        if (viewport == null) return;
-
-        Widget button = parent.getChild(childId);
-        if (button == null || button.isHidden() || button.getBounds().width <=0 || button.getBounds().height <= 0 || hidden || !viewport.getBounds().intersects(button.getBounds())) return;
+        if (childId < 0) return;
 
-        Rectangle bounds = button.getBounds();
+        Rectangle bounds = buttonBounds[childId];
         if (bounds == null) return;
 
-        g.setColor(new Color(config.uiHighlightColour().getRed(), config.uiHighlightColour().getGreen(), config.uiHighlightColour().getBlue(), 120));
+        g.setColor(fill);
         g.fillRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, 8, 8);
 
-        g.setColor(new Color(config.uiHighlightColour().getRed(), config.uiHighlightColour().getGreen(), config.uiHighlightColour().getBlue(), 220));
-        g.setStroke(new BasicStroke(2));
+        g.setColor(outline);
+        g.setStroke(HIGHLIGHT_STROKE);
         g.drawRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, 8, 8);
 
 
     }
 
-    private void drawNetDepthLetter(Graphics2D graphics, int netIndex) {
+    private void drawNetDepthLetter(Graphics2D graphics, TrawlingState state, int shipType, int netIndex) {
         int downId = -1;
-
-        Widget parent = client.getWidget(SAILING_SIDEPANEL_GROUP , FACILITIES_CONTENT_CLICKLAYER_CHILD);
-        if (parent == null) return;
-        boolean hidden = false;
-        for (Widget widgetParent = parent; widgetParent != null; widgetParent = widgetParent.getParent())
-        {
-            if (widgetParent.isHidden()) {
-                hidden = true;
-            }
-        }
-
-        if (plugin.boats.get(client.getLocalPlayer().getWorldView().getId()) == null) {
-            return;
-        }
-        int shipType = plugin.boats.get(client.getLocalPlayer().getWorldView().getId());
-
-
         if (shipType == SLOOP_WORLDVIEW_ID) {
             downId = (netIndex == 0) ? STARBOARD_DOWN_INDEX : PORT_DOWN_INDEX;
         } else if (shipType == SKIFF_WORLDVIEW_ID) {
@@ -167,58 +238,27 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
         }
         if (downId < 0) { return; }
 
-        Widget down = parent.getChild(downId);
-
-        Widget viewport = client.getWidget(161, 73);
-        if (viewport == null) return;
-
-        if (down == null || down.isHidden() || hidden || down.getBounds().width <=0 || down.getBounds().height <= 0 || !viewport.getBounds().intersects(down.getBounds()))
-        {
-            return;
-        }
-
-        Rectangle downButton = down.getBounds();
-
-        if (downButton == null || downButton.width <= 0 || downButton.height <= 0)
+        Rectangle downButton = buttonBounds[downId];
+        if (downButton == null)
         {
             return;
         }
 
-        Net net = plugin.netList[netIndex];
-        if (net == null)
+        Net.NetDepth netDepth = state.getNetSetting(netIndex);
+        if (netDepth == null)
         {
             return;
         }
 
-        String letter = depthLetter(net.getNetDepth());
+        LabelSprite letter = depthLetters[netDepth.ordinal()];
 
         int targetX = downButton.x - 36;                  // left of the down button (tweak)
         int targetY = downButton.y;                       // halfway towards the up button (if dy=0, stays on down)
 
-        // Draw the label with a background pill
-        graphics.setFont(FontManager.getRunescapeBoldFont().deriveFont( 14f));
-        FontMetrics fm = graphics.getFontMetrics();
-
-        int textW = fm.stringWidth(letter);
-        int textH = fm.getAscent();
-
-        int x = targetX - textW / 2 + downButton.width / 2;  // center-ish relative to down button width
-        int y = targetY + downButton.height / 2 + textH / 2 - 2;
-
-        int padX = 6;
-        int padY = 4;
-
-        int bgW = textW + padX * 2;
-        int bgH = fm.getHeight() + padY * 2;
-
-        int bgX = x - padX;
-        int bgY = y - fm.getAscent() - padY;
-
-        graphics.setColor(new Color(0, 0, 0, 160));
-        graphics.fillRoundRect(bgX, bgY, bgW, bgH, 10, 10);
+        int x = targetX - letter.getTextWidth() / 2 + downButton.width / 2;  // center-ish relative to down button width
+        int y = targetY + downButton.height / 2 + letter.getAscent() / 2 - 2;
 
-        graphics.setColor(colorForDepth(net.getNetDepth()));
-        graphics.drawString(letter, x, y);
+        letter.draw(graphics, x, y);
     }
 
     private static String depthLetter(Net.NetDepth d)
@@ -237,10 +277,10 @@ public class DeepSeaTrawlingWidgetOverlay extends Overlay {
     {
         switch (d)
         {
-            case RAISED:  return new Color(200, 200, 200);
-            case SHALLOW: return new Color(80, 255, 80);
-            case MEDIUM:  return new Color(255, 200, 80);
-            case DEEP:    return new Color(255, 80, 80);
+            case RAISED:  return RAISED_TEXT;
+            case SHALLOW: return SHALLOW_TEXT;
+            case MEDIUM:  return MEDIUM_TEXT;
+            case DEEP:    return DEEP_TEXT;
             default:      return Color.WHITE;
         }
     }
@@ -0,0 +1,140 @@
+package com.deepseatrawling;
+
+import net.runelite.client.config.ConfigManager;
+
+import java.util.Arrays;
+
+/*
+ * The depth each route's shoal has been seen at, by 4 tile stretch of arc length along the route. Filled in
+ * from moving shoals every tick, so each depth transition lands in the bucket where it happened, and read
+ * back with one array index to see what depth lies ahead. Tables are saved to the config as one character
+ * per bucket and survive restarts; a table whose length no longer matches its route is dropped.
+ */
+public class DepthSchedule {
+
+    // Separate from the plugin's config group so saving does not count as a settings change
+    static final String CONFIG_GROUP = "deepseatrawlingdepths";
+    private static final String KEY_PREFIX = "route";
+
+    public static final double BUCKET_TILES = 4;
+    private static final byte UNKNOWN = -1;
+    private static final char UNKNOWN_CHAR = '.';
+    // By ShoalDepth ordinal
+    private static final char[] DEPTH_CHARS = {'S', 'M', 'D'};
+    private static final ShoalData.ShoalDepth[] DEPTHS = ShoalData.ShoalDepth.values();
+
+    private static final int ROUTES = ShoalRouteRegistry.MAX_WORLD_VIEW_ID - ShoalRouteRegistry.MIN_WORLD_VIEW_ID + 1;
+
+    private final byte[][] tables = new byte[ROUTES][];
+    // Saved text waiting for its route to load before it can be checked against the route length
+    private final String[] saved = new String[ROUTES];
+    private final boolean[] changed = new boolean[ROUTES];
+
+    // Logs the depth of a shoal at its place on the route, once its ripples have shown it
+    public void observe(ShoalData shoal) {
+        ShoalData.ShoalDepth depth = shoal.getDepth();
+        if (!shoal.isDepthObserved() || depth == null || depth == ShoalData.ShoalDepth.UNKNOWN || !shoal.getCursor().isValid()) {
+            return;
+        }
+        byte[] table = table(shoal.getWorldViewId(), shoal.getTimeline());
+        if (table == null) {
+            return;
+        }
+        int bucket = bucket(table, shoal.getProgress());
+        if (table[bucket] != depth.ordinal()) {
+            table[bucket] = (byte) depth.ordinal();
+            changed[shoal.getWorldViewId() - ShoalRouteRegistry.MIN_WORLD_VIEW_ID] = true;
+        }
+    }
+
+    // Depth previously seen at an arc position of the route, null if never seen there. Takes the route's
+    // timeline so a table saved in an earlier session is read back before anything has been observed
+    public ShoalData.ShoalDepth expectedAt(int worldViewId, RouteTimeline timeline, double position) {
+        if (position < 0) {
+            return null;
+        }
+        byte[] table = table(worldViewId, timeline);
+        if (table == null) {
+            return null;
+        }
+        byte depth = table[bucket(table, position)];
+        return depth == UNKNOWN ? null : DEPTHS[depth];
+    }
+
+    private static int bucket(byte[] table, double position) {
+        return Math.min((int) (position / BUCKET_TILES), table.length - 1);
+    }
+
+    private byte[] table(int worldViewId, RouteTimeline timeline) {
+        int index = worldViewId - ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+        if (index < 0 || index >= ROUTES || timeline.isEmpty()) {
+            return null;
+        }
+        int buckets = (int) Math.ceil(timeline.getLength() / BUCKET_TILES) + 1;
+        if (tables[index] == null || tables[index].length != buckets) {
+            tables[index] = parse(saved[index], buckets);
+            saved[index] = null;
+        }
+        return tables[index];
+    }
+
+    private static byte[] parse(String text, int buckets) {
+        byte[] table = new byte[buckets];
+        Arrays.fill(table, UNKNOWN);
+        if (text == null || text.length() != buckets) {
+            return table;
+        }
+        for (int i = 0; i < buckets; i++)
+        {
+            for (int depth = 0; depth < DEPTH_CHARS.length; depth++)
+            {
+                if (text.charAt(i) == DEPTH_CHARS[depth]) {
+                    table[i] = (byte) depth;
+                }
+            }
+        }
+        return table;
+    }
+
+    public void load(ConfigManager configManager) {
+        for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+        {
+            restore(id, configManager.getConfiguration(CONFIG_GROUP, KEY_PREFIX + id));
+        }
+    }
+
+    // Writes back the tables changed since the last save
+    public void save(ConfigManager configManager) {
+        for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+        {
+            int index = id - ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+            if (tables[index] == null || !changed[index]) {
+                continue;
+            }
+            changed[index] = false;
+            configManager.setConfiguration(CONFIG_GROUP, KEY_PREFIX + id, toText(id));
+        }
+    }
+
+    // Replaces a route's table with saved text, parsed once the route's length is known
+    void restore(int worldViewId, String text) {
+        int index = worldViewId - ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+        tables[index] = null;
+        saved[index] = text;
+        changed[index] = false;
+    }
+
+    // The route's table as it is saved, one character per bucket; null before the table exists
+    String toText(int worldViewId) {
+        byte[] table = tables[worldViewId - ShoalRouteRegistry.MIN_WORLD_VIEW_ID];
+        if (table == null) {
+            return null;
+        }
+        char[] text = new char[table.length];
+        for (int i = 0; i < table.length; i++)
+        {
+            text[i] = table[i] == UNKNOWN ? UNKNOWN_CHAR : DEPTH_CHARS[table[i]];
+        }
+        return new String(text);
+    }
+}
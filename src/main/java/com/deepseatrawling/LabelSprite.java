@@ -0,0 +1,85 @@
+package com.deepseatrawling;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/*
+ * A short piece of text and its rounded background rendered once into an image, so overlays can
+ * blit it without laying out fonts each frame. Positions are given the same way as drawString:
+ * x is where the text starts and y is its baseline.
+ */
+public class LabelSprite {
+
+    private final BufferedImage image;
+    private final int textWidth;
+    private final int ascent;
+    // Top-left of the image relative to the text origin
+    private final int offsetX;
+    private final int offsetY;
+
+    private LabelSprite(BufferedImage image, int textWidth, int ascent, int offsetX, int offsetY) {
+        this.image = image;
+        this.textWidth = textWidth;
+        this.ascent = ascent;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    // Background spans one line height above the baseline, padX either side of the text
+    public static LabelSprite tag(String text, Font font, Color textColour, Color background, int padX, int arc) {
+        FontMetrics metrics = metrics(font);
+        int width = metrics.stringWidth(text);
+        int height = metrics.getHeight();
+
+        BufferedImage image = new BufferedImage(width + padX * 2, height + metrics.getDescent(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = begin(image, font);
+        graphics.setColor(background);
+        graphics.fillRoundRect(0, 0, width + padX * 2, height, arc, arc);
+        graphics.setColor(textColour);
+        graphics.drawString(text, padX, height);
+        graphics.dispose();
+        return new LabelSprite(image, width, metrics.getAscent(), -padX, -height);
+    }
+
+    // Background wraps the whole line box plus padding on every side
+    public static LabelSprite pill(String text, Font font, Color textColour, Color background, int padX, int padY, int arc) {
+        FontMetrics metrics = metrics(font);
+        int width = metrics.stringWidth(text);
+        int ascent = metrics.getAscent();
+
+        BufferedImage image = new BufferedImage(width + padX * 2, metrics.getHeight() + padY * 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = begin(image, font);
+        graphics.setColor(background);
+        graphics.fillRoundRect(0, 0, image.getWidth(), image.getHeight(), arc, arc);
+        graphics.setColor(textColour);
+        graphics.drawString(text, padX, ascent + padY);
+        graphics.dispose();
+        return new LabelSprite(image, width, ascent, -padX, -ascent - padY);
+    }
+
+    private static FontMetrics metrics(Font font) {
+        Graphics2D graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics = graphics.getFontMetrics(font);
+        graphics.dispose();
+        return metrics;
+    }
+
+    private static Graphics2D begin(BufferedImage image, Font font) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setFont(font);
+        return graphics;
+    }
+
+    public void draw(Graphics2D graphics, int x, int y) {
+        graphics.drawImage(image, x + offsetX, y + offsetY, null);
+    }
+
+    public int getTextWidth() {
+        return textWidth;
+    }
+
+    public int getAscent() {
+        return ascent;
+    }
+}
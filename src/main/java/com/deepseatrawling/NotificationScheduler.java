@@ -0,0 +1,113 @@
+package com.deepseatrawling;
+
+import net.runelite.client.Notifier;
+
+import javax.inject.Inject;
+import java.util.function.Consumer;
+
+/*
+ * Turns conditions sampled once per game tick into RuneLite notifications. A type fires when its condition
+ * becomes true, at most once per its cooldown, and stays pending while the condition holds if it had to
+ * wait. Everything due on the same tick goes out as one notification, and no more than MAX_PER_WINDOW go
+ * out in any WINDOW_TICKS, however the conditions flap.
+ */
+public class NotificationScheduler {
+
+    public enum Type {
+        NET_FULL("Trawling net(s) full! Empty now!", 50),
+        DEPTH_MISMATCH("Shoal changed depth! Adjust your nets.", 10),
+        SHOAL_STOPPING("Shoal is about to stop.", 20);
+
+        private final String message;
+        private final int cooldownTicks;
+
+        Type(String message, int cooldownTicks) {
+            this.message = message;
+            this.cooldownTicks = cooldownTicks;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // One minute of game ticks
+    static final int WINDOW_TICKS = 100;
+    static final int MAX_PER_WINDOW = 4;
+
+    private static final Type[] TYPES = Type.values();
+
+    private final Consumer<String> notifier;
+
+    private final boolean[] active = new boolean[TYPES.length];
+    private final boolean[] pending = new boolean[TYPES.length];
+    private final int[] lastFired = new int[TYPES.length];
+    // Ticks of the most recent notifications, oldest first once full
+    private final int[] sent = new int[MAX_PER_WINDOW];
+    private int sentNext;
+    private int sentCount;
+
+    private final StringBuilder message = new StringBuilder();
+
+    @Inject
+    NotificationScheduler(Notifier notifier) {
+        this(notifier::notify);
+    }
+
+    // Sends to any sink, so the scheduling can be exercised without RuneLite's Notifier
+    NotificationScheduler(Consumer<String> notifier) {
+        this.notifier = notifier;
+        reset();
+    }
+
+    public void reset() {
+        for (int i = 0; i < TYPES.length; i++)
+        {
+            active[i] = false;
+            pending[i] = false;
+            lastFired[i] = Integer.MIN_VALUE / 2;
+        }
+        sentNext = 0;
+        sentCount = 0;
+    }
+
+    // Samples a condition for this tick; a false to true change queues the notification
+    public void update(Type type, boolean condition) {
+        int i = type.ordinal();
+        if (condition && !active[i]) {
+            pending[i] = true;
+        } else if (!condition) {
+            pending[i] = false;
+        }
+        active[i] = condition;
+    }
+
+    // Sends whatever is due, called once per tick after every condition has been updated
+    public void flush(int tick) {
+        if (sentCount == MAX_PER_WINDOW && tick - sent[sentNext] < WINDOW_TICKS) {
+            return;
+        }
+
+        message.setLength(0);
+        for (int i = 0; i < TYPES.length; i++)
+        {
+            if (!pending[i] || tick - lastFired[i] < TYPES[i].cooldownTicks) {
+                continue;
+            }
+            pending[i] = false;
+            lastFired[i] = tick;
+            if (message.length() > 0) {
+                message.append(' ');
+            }
+            message.append(TYPES[i].getMessage());
+        }
+        if (message.length() == 0) {
+            return;
+        }
+
+        sent[sentNext] = tick;
+        sentNext = (sentNext + 1) % MAX_PER_WINDOW;
+        sentCount = Math.min(sentCount + 1, MAX_PER_WINDOW);
+        notifier.accept(message.toString());
+    }
+}
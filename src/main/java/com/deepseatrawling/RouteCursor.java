@@ -0,0 +1,49 @@
+package com.deepseatrawling;
+
+/*
+ * Where a point sits on a route timeline: the nearest segment, how far along it (0..1), the arc
+ * length that gives and the distance off the path in tiles. Filled in by RouteTimeline.locate and
+ * RouteTimeline.track; a cursor that has not found the path has segment -1.
+ */
+public class RouteCursor {
+
+    private int segment = -1;
+    private double fraction;
+    private double position = -1;
+    private double distance;
+
+    void set(int segment, double fraction, double position, double distance) {
+        this.segment = segment;
+        this.fraction = fraction;
+        this.position = position;
+        this.distance = distance;
+    }
+
+    public void reset() {
+        segment = -1;
+        fraction = 0;
+        position = -1;
+        distance = 0;
+    }
+
+    public boolean isValid() {
+        return segment >= 0;
+    }
+
+    public int getSegment() {
+        return segment;
+    }
+
+    public double getFraction() {
+        return fraction;
+    }
+
+    // Arc length along the route, -1 while not on it
+    public double getPosition() {
+        return position;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+}
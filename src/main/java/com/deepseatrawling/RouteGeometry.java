@@ -0,0 +1,297 @@
+package com.deepseatrawling;
+
+import net.runelite.api.Perspective;
+
+import java.util.Arrays;
+
+/*
+ * Render geometry for a shoal path: the recorded points with duplicates removed, smoothed by the
+ * diagonalSmoothing setting, then simplified into Douglas-Peucker levels of detail. A path that ends where
+ * it starts is a loop and is smoothed round the seam, so the join is as smooth as the rest of it.
+ * Coordinates are world tiles in local units (tile * 128 + 64) so smoothed points keep sub-tile precision.
+ */
+public class RouteGeometry {
+
+    // Maximum deviation of each level from the smoothed line, in tiles
+    private static final double[] LEVEL_TOLERANCES = { 0, 0.05, 0.15, 0.4, 1 };
+    // Coarser levels are only used while their deviation stays under this many pixels on screen
+    private static final double MAX_SCREEN_ERROR = 1.5;
+    static final int ARROW_SPACING = Perspective.LOCAL_TILE_SIZE * 12;
+    private static final int HALF_TILE = Perspective.LOCAL_TILE_SIZE / 2;
+
+    private final ShoalRoute route;
+    private final int smoothing;
+    private final Level[] levels;
+
+    public static class Level {
+        private final int[] xs;
+        private final int[] ys;
+        private final int[] planes;
+        private final int[] sourceIndex;
+        private final RouteGrid grid;
+        private final byte[] segmentBucket;
+        // Arrows on segment i are arrowFraction[arrowStart[i] .. arrowStart[i + 1]) of the way along it
+        private final int[] arrowStart;
+        private final float[] arrowFraction;
+
+        private Level(int[] xs, int[] ys, int[] sourceIndex, ShoalRoute route) {
+            int count = xs.length;
+            this.xs = xs;
+            this.ys = ys;
+            this.sourceIndex = sourceIndex;
+            this.planes = new int[count];
+
+            int[] tileX = new int[count];
+            int[] tileY = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                planes[i] = route.getPlane(sourceIndex[i]);
+                tileX[i] = xs[i] >> Perspective.LOCAL_COORD_BITS;
+                tileY[i] = ys[i] >> Perspective.LOCAL_COORD_BITS;
+            }
+            this.grid = new RouteGrid(tileX, tileY);
+
+            int segments = Math.max(0, count - 1);
+            int last = Math.max(1, route.size() - 1);
+            segmentBucket = new byte[segments];
+            for (int i = 0; i < segments; i++)
+            {
+                float t = sourceIndex[i] / (float) last;
+                segmentBucket[i] = (byte) Math.min(RouteProjectionCache.GRADIENT_BUCKETS - 1, (int) (t * RouteProjectionCache.GRADIENT_BUCKETS));
+            }
+
+            arrowStart = new int[segments + 1];
+            float[] fractions = new float[16];
+            int arrows = 0;
+            double travelled = 0;
+            double nextArrow = ARROW_SPACING / 2.0;
+            for (int i = 0; i < segments; i++)
+            {
+                arrowStart[i] = arrows;
+                double length = Math.hypot(xs[i + 1] - xs[i], ys[i + 1] - ys[i]);
+                while (length > 0 && nextArrow <= travelled + length)
+                {
+                    if (arrows == fractions.length) {
+                        fractions = Arrays.copyOf(fractions, arrows * 2);
+                    }
+                    fractions[arrows++] = (float) ((nextArrow - travelled) / length);
+                    nextArrow += ARROW_SPACING;
+                }
+                travelled += length;
+            }
+            arrowStart[segments] = arrows;
+            arrowFraction = Arrays.copyOf(fractions, arrows);
+        }
+
+        public int size() {
+            return xs.length;
+        }
+
+        public int getX(int index) {
+            return xs[index];
+        }
+
+        public int getY(int index) {
+            return ys[index];
+        }
+
+        public int getPlane(int index) {
+            return planes[index];
+        }
+
+        // Index of the recorded route point this vertex came from
+        public int getSourceIndex(int index) {
+            return sourceIndex[index];
+        }
+
+        public RouteGrid getGrid() {
+            return grid;
+        }
+
+        public int getColourBucket(int segment) {
+            return segmentBucket[segment];
+        }
+
+        public int getArrowStart(int segment) {
+            return arrowStart[segment];
+        }
+
+        public float getArrowFraction(int arrow) {
+            return arrowFraction[arrow];
+        }
+    }
+
+    private RouteGeometry(ShoalRoute route, int smoothing, Level[] levels) {
+        this.route = route;
+        this.smoothing = smoothing;
+        this.levels = levels;
+    }
+
+    public static RouteGeometry build(ShoalRoute route, int smoothing)
+    {
+        int size = route.size();
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        int[] source = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++)
+        {
+            int x = (route.getX(i) << Perspective.LOCAL_COORD_BITS) + HALF_TILE;
+            int y = (route.getY(i) << Perspective.LOCAL_COORD_BITS) + HALF_TILE;
+            if (count > 0 && xs[count - 1] == x && ys[count - 1] == y) {
+                continue;
+            }
+            xs[count] = x;
+            ys[count] = y;
+            source[count] = i;
+            count++;
+        }
+        xs = Arrays.copyOf(xs, count);
+        ys = Arrays.copyOf(ys, count);
+        source = Arrays.copyOf(source, count);
+
+        int radius = Math.max(0, Math.min(5, smoothing));
+        if (radius > 0) {
+            // The closing point repeats the first, so a loop has count - 1 distinct points and both ends
+            // average the same window
+            int ring = count - 1;
+            boolean loop = count > 2 && xs[0] == xs[ring] && ys[0] == ys[ring] && ring > 2 * radius;
+            int[] smoothX = new int[count];
+            int[] smoothY = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                // Shrink the window near the ends of an open path so its first and last points stay fixed
+                int r = loop ? radius : Math.min(radius, Math.min(i, count - 1 - i));
+                long sumX = 0;
+                long sumY = 0;
+                for (int j = i - r; j <= i + r; j++)
+                {
+                    int k = loop ? Math.floorMod(j, ring) : j;
+                    sumX += xs[k];
+                    sumY += ys[k];
+                }
+                smoothX[i] = (int) (sumX / (2 * r + 1));
+                smoothY[i] = (int) (sumY / (2 * r + 1));
+            }
+            xs = smoothX;
+            ys = smoothY;
+        }
+
+        Level[] levels = new Level[LEVEL_TOLERANCES.length];
+        for (int level = 0; level < levels.length; level++)
+        {
+            boolean[] keep = simplify(xs, ys, LEVEL_TOLERANCES[level] * Perspective.LOCAL_TILE_SIZE);
+            int kept = 0;
+            for (boolean k : keep)
+            {
+                if (k) {
+                    kept++;
+                }
+            }
+
+            int[] levelX = new int[kept];
+            int[] levelY = new int[kept];
+            int[] levelSource = new int[kept];
+            int n = 0;
+            for (int i = 0; i < count; i++)
+            {
+                if (keep[i]) {
+                    levelX[n] = xs[i];
+                    levelY[n] = ys[i];
+                    levelSource[n] = source[i];
+                    n++;
+                }
+            }
+            levels[level] = new Level(levelX, levelY, levelSource, route);
+        }
+        return new RouteGeometry(route, smoothing, levels);
+    }
+
+    // Iterative Douglas-Peucker; marks the points to keep
+    private static boolean[] simplify(int[] xs, int[] ys, double tolerance)
+    {
+        int count = xs.length;
+        boolean[] keep = new boolean[count];
+        if (count <= 2 || tolerance <= 0) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+
+        keep[0] = true;
+        keep[count - 1] = true;
+        int[] stack = new int[count * 2];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        double toleranceSq = tolerance * tolerance;
+
+        while (top > 0)
+        {
+            int end = stack[--top];
+            int start = stack[--top];
+
+            double ax = xs[start];
+            double ay = ys[start];
+            double dx = xs[end] - ax;
+            double dy = ys[end] - ay;
+            double lengthSq = dx * dx + dy * dy;
+
+            int farthest = -1;
+            double farthestSq = toleranceSq;
+            for (int i = start + 1; i < end; i++)
+            {
+                double px = xs[i] - ax;
+                double py = ys[i] - ay;
+                double distanceSq;
+                if (lengthSq == 0) {
+                    distanceSq = px * px + py * py;
+                } else {
+                    double cross = px * dy - py * dx;
+                    distanceSq = cross * cross / lengthSq;
+                }
+                if (distanceSq > farthestSq) {
+                    farthestSq = distanceSq;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                stack[top++] = start;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+        return keep;
+    }
+
+    public ShoalRoute getRoute() {
+        return route;
+    }
+
+    public int getSmoothing() {
+        return smoothing;
+    }
+
+    int getLevelCount() {
+        return levels.length;
+    }
+
+    // Level 0 keeps every smoothed point; each later one is simplified with a larger tolerance
+    Level getLevel(int level) {
+        return levels[level];
+    }
+
+    // Coarsest level whose deviation stays within MAX_SCREEN_ERROR pixels at the given on-screen tile size
+    public Level levelFor(double pixelsPerTile)
+    {
+        for (int level = levels.length - 1; level > 0; level--)
+        {
+            if (LEVEL_TOLERANCES[level] * pixelsPerTile <= MAX_SCREEN_ERROR) {
+                return levels[level];
+            }
+        }
+        return levels[0];
+    }
+}
@@ -0,0 +1,69 @@
+package com.deepseatrawling;
+
+import java.util.Arrays;
+
+/*
+ * Buckets the points of a route by 64x64 map region so callers can fetch just the
+ * indices inside an area. A path segment i is filed under the region of its start point.
+ */
+public class RouteGrid {
+
+    private static final int REGION_SHIFT = 6;
+
+    // Sorted region keys; indices for cellKeys[c] are indices[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellKeys;
+    private final int[] cellStart;
+    private final int[] indices;
+
+    RouteGrid(int[] xs, int[] ys) {
+        int count = xs.length;
+        long[] keyed = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            keyed[i] = ((long) cellKey(xs[i] >> REGION_SHIFT, ys[i] >> REGION_SHIFT) << 32) | i;
+        }
+        Arrays.sort(keyed);
+
+        int[] keys = new int[count];
+        int[] starts = new int[count + 1];
+        indices = new int[count];
+        int cells = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int key = (int) (keyed[i] >>> 32);
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+            indices[i] = (int) keyed[i];
+        }
+        starts[cells] = count;
+
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    // Writes every index whose point lies in a region overlapping the rectangle, returns how many
+    public int query(int minX, int minY, int maxX, int maxY, int[] out) {
+        int count = 0;
+        for (int regionX = minX >> REGION_SHIFT; regionX <= maxX >> REGION_SHIFT; regionX++)
+        {
+            for (int regionY = minY >> REGION_SHIFT; regionY <= maxY >> REGION_SHIFT; regionY++)
+            {
+                int cell = Arrays.binarySearch(cellKeys, cellKey(regionX, regionY));
+                if (cell < 0) {
+                    continue;
+                }
+                int length = cellStart[cell + 1] - cellStart[cell];
+                System.arraycopy(indices, cellStart[cell], out, count, length);
+                count += length;
+            }
+        }
+        return count;
+    }
+
+    private static int cellKey(int regionX, int regionY) {
+        return (regionX << 8) | (regionY & 0xFF);
+    }
+}
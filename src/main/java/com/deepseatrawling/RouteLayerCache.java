@@ -0,0 +1,74 @@
+package com.deepseatrawling;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/*
+ * Translucent canvas-sized image holding the static route geometry. Callers describe what the
+ * layer would show as a list of longs; while that key and the canvas size are unchanged the
+ * layer is blitted instead of redrawn.
+ */
+public class RouteLayerCache {
+
+    private BufferedImage image;
+    private long[] key = new long[32];
+    private int keyLength = -1;
+    private long[] pendingKey = new long[32];
+    private int pendingLength;
+
+    public void beginKey() {
+        pendingLength = 0;
+    }
+
+    public void addKey(long value) {
+        if (pendingLength == pendingKey.length) {
+            pendingKey = Arrays.copyOf(pendingKey, pendingLength * 2);
+        }
+        pendingKey[pendingLength++] = value;
+    }
+
+    public boolean isValid(int width, int height) {
+        return image != null && image.getWidth() == width && image.getHeight() == height
+                && keyLength == pendingLength
+                && Arrays.equals(key, 0, keyLength, pendingKey, 0, pendingLength);
+    }
+
+    // Clears the layer and returns a graphics context for redrawing it with the target's rendering hints
+    public Graphics2D beginRedraw(Graphics2D target, int width, int height) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setComposite(AlphaComposite.SrcOver);
+        graphics.setRenderingHints(target.getRenderingHints());
+        return graphics;
+    }
+
+    public void finishRedraw(Graphics2D graphics) {
+        graphics.dispose();
+
+        long[] swap = key;
+        key = pendingKey;
+        keyLength = pendingLength;
+        pendingKey = swap;
+    }
+
+    public void draw(Graphics2D target) {
+        if (image != null) {
+            target.drawImage(image, 0, 0, null);
+        }
+    }
+
+    public void invalidate() {
+        keyLength = -1;
+    }
+
+    public void release() {
+        image = null;
+        keyLength = -1;
+    }
+}
@@ -0,0 +1,249 @@
+package com.deepseatrawling;
+
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Point;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+
+import java.awt.*;
+
+/*
+ * Projection of the visible part of one shoal route (at the chosen level of detail), cached in two layers:
+ *  - world -> local (plus tile height) for the segments and stops inside the draw area, found through
+ *    the route grid and then checked point by point, rebuilt when the scene revision or draw area changes
+ *  - local -> canvas points and stop polygons, rebuilt when the camera revision changes
+ */
+public class RouteProjectionCache {
+
+    static final int OFF_SCREEN = Integer.MIN_VALUE;
+
+    static final int GRADIENT_BUCKETS = 64;
+    static final Color[] GRADIENT_COLOURS = new Color[GRADIENT_BUCKETS];
+
+    static {
+        for (int i = 0; i < GRADIENT_BUCKETS; i++)
+        {
+            GRADIENT_COLOURS[i] = Color.getHSBColor(i / (float) GRADIENT_BUCKETS, 1.0f, 1.0f);
+        }
+    }
+
+    private RouteGeometry.Level path;
+    private ShoalRoute stops;
+    private int plane = -1;
+    private int sceneRevision = -1;
+    private int cameraRevision = -1;
+    private int stopSizeTiles = -1;
+    private int revision;
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    private int[] localX = new int[0];
+    private int[] localY = new int[0];
+    private int[] height = new int[0];
+    private int[] canvasX = new int[0];
+    private int[] canvasY = new int[0];
+
+    // Points shared by two visible segments are only projected once per pass
+    private int[] pointStamp = new int[0];
+    private int stamp;
+
+    private int[] visibleSegments = new int[0];
+    private int visibleSegmentCount;
+    private int[] visibleStops = new int[0];
+    private int visibleStopCount;
+
+    private LocalPoint[] stopLocal = new LocalPoint[0];
+    private Polygon[] stopPolygons = new Polygon[0];
+
+    public void update(Client client, WorldView worldView, RouteGeometry.Level path, ShoalRoute stops, int plane,
+                       int sceneRevision, int cameraRevision, int stopSizeTiles,
+                       int minX, int minY, int maxX, int maxY)
+    {
+        boolean sceneChanged = path != this.path || stops != this.stops || plane != this.plane
+                || sceneRevision != this.sceneRevision
+                || minX != this.minX || minY != this.minY || maxX != this.maxX || maxY != this.maxY;
+        if (sceneChanged) {
+            this.path = path;
+            this.stops = stops;
+            this.plane = plane;
+            this.sceneRevision = sceneRevision;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            projectToLocal(client, worldView);
+        }
+
+        if (sceneChanged || cameraRevision != this.cameraRevision || stopSizeTiles != this.stopSizeTiles) {
+            this.cameraRevision = cameraRevision;
+            this.stopSizeTiles = stopSizeTiles;
+            projectToCanvas(client);
+            revision++;
+        }
+    }
+
+    private void projectToLocal(Client client, WorldView worldView)
+    {
+        int size = path.size();
+        if (localX.length != size) {
+            localX = new int[size];
+            localY = new int[size];
+            height = new int[size];
+            canvasX = new int[size];
+            canvasY = new int[size];
+            pointStamp = new int[size];
+            visibleSegments = new int[size];
+        }
+
+        int found = path.getGrid().query(minX, minY, maxX, maxY, visibleSegments);
+        visibleSegmentCount = 0;
+        stamp++;
+        for (int k = 0; k < found; k++)
+        {
+            int i = visibleSegments[k];
+            if (i + 1 >= size) {
+                continue;
+            }
+            visibleSegments[visibleSegmentCount++] = i;
+            projectPointToLocal(client, worldView, i);
+            projectPointToLocal(client, worldView, i + 1);
+        }
+
+        if (stopLocal.length != stops.size()) {
+            stopLocal = new LocalPoint[stops.size()];
+            stopPolygons = new Polygon[stops.size()];
+            visibleStops = new int[stops.size()];
+        }
+        // The grid returns whole regions, so stops outside the draw area are dropped here
+        int candidates = stops.getGrid().query(minX, minY, maxX, maxY, visibleStops);
+        visibleStopCount = 0;
+        for (int k = 0; k < candidates; k++)
+        {
+            int i = visibleStops[k];
+            if (!inDrawArea(stops.getX(i), stops.getY(i))) {
+                continue;
+            }
+            visibleStops[visibleStopCount++] = i;
+            stopLocal[i] = toLocal(worldView, stops, i);
+        }
+    }
+
+    private void projectPointToLocal(Client client, WorldView worldView, int i)
+    {
+        if (pointStamp[i] == stamp) {
+            return;
+        }
+        pointStamp[i] = stamp;
+
+        int x = path.getX(i) - (worldView.getBaseX() << Perspective.LOCAL_COORD_BITS);
+        int y = path.getY(i) - (worldView.getBaseY() << Perspective.LOCAL_COORD_BITS);
+        if (path.getPlane(i) != worldView.getPlane()
+                || !inDrawArea(path.getX(i) >> Perspective.LOCAL_COORD_BITS, path.getY(i) >> Perspective.LOCAL_COORD_BITS)
+                || x < 0 || y < 0
+                || x >= worldView.getSizeX() << Perspective.LOCAL_COORD_BITS
+                || y >= worldView.getSizeY() << Perspective.LOCAL_COORD_BITS) {
+            localX[i] = OFF_SCREEN;
+            return;
+        }
+        localX[i] = x;
+        localY[i] = y;
+        height[i] = Perspective.getTileHeight(client, new LocalPoint(x, y, worldView), plane);
+    }
+
+    private boolean inDrawArea(int tileX, int tileY)
+    {
+        return tileX >= minX && tileX <= maxX && tileY >= minY && tileY <= maxY;
+    }
+
+    private void projectToCanvas(Client client)
+    {
+        stamp++;
+        for (int k = 0; k < visibleSegmentCount; k++)
+        {
+            int i = visibleSegments[k];
+            projectPointToCanvas(client, i);
+            projectPointToCanvas(client, i + 1);
+        }
+
+        for (int k = 0; k < visibleStopCount; k++)
+        {
+            int i = visibleStops[k];
+            stopPolygons[i] = stopLocal[i] == null ? null
+                    : Perspective.getCanvasTileAreaPoly(client, stopLocal[i], stopSizeTiles);
+        }
+    }
+
+    private void projectPointToCanvas(Client client, int i)
+    {
+        if (pointStamp[i] == stamp) {
+            return;
+        }
+        pointStamp[i] = stamp;
+
+        Point point = localX[i] == OFF_SCREEN ? null
+                : Perspective.localToCanvas(client, localX[i], localY[i], height[i]);
+        if (point == null) {
+            canvasX[i] = OFF_SCREEN;
+            return;
+        }
+        canvasX[i] = point.getX();
+        canvasY[i] = point.getY();
+    }
+
+    private static LocalPoint toLocal(WorldView worldView, ShoalRoute route, int index)
+    {
+        if (worldView == null || route.getPlane(index) != worldView.getPlane()) {
+            return null;
+        }
+        return LocalPoint.fromWorld(worldView, route.getX(index), route.getY(index));
+    }
+
+    // Changes whenever any cached canvas geometry does
+    public int getRevision() {
+        return revision;
+    }
+
+    public int getVisibleSegmentCount() {
+        return visibleSegmentCount;
+    }
+
+    // Index of the k-th visible segment, which runs from point i to point i + 1
+    public int getVisibleSegment(int k) {
+        return visibleSegments[k];
+    }
+
+    public boolean isOnScreen(int index) {
+        return canvasX[index] != OFF_SCREEN;
+    }
+
+    public int getCanvasX(int index) {
+        return canvasX[index];
+    }
+
+    public int getCanvasY(int index) {
+        return canvasY[index];
+    }
+
+    public RouteGeometry.Level getPath() {
+        return path;
+    }
+
+    public int getVisibleStopCount() {
+        return visibleStopCount;
+    }
+
+    public int getVisibleStop(int k) {
+        return visibleStops[k];
+    }
+
+    public LocalPoint getStopLocal(int index) {
+        return stopLocal[index];
+    }
+
+    public Polygon getStopPolygon(int index) {
+        return stopPolygons[index];
+    }
+}
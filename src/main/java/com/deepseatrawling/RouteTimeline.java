@@ -0,0 +1,290 @@
+package com.deepseatrawling;
+
+import net.runelite.api.Perspective;
+
+import java.util.Arrays;
+
+/*
+ * Arc-length table for a shoal path: the distance along the path to every point, the position of each
+ * stop along it, and lookups between arc length, path segments and coordinates. Shoal paths are loops,
+ * so arc lengths wrap at getLength(). Lengths are in tiles.
+ */
+public class RouteTimeline {
+
+    public static final RouteTimeline EMPTY = new RouteTimeline(ShoalRoute.EMPTY, ShoalRoute.EMPTY);
+
+    private final ShoalRoute path;
+    private final double[] arc;
+    private final double length;
+    // Stops sorted by their arc length, with the index of each in the stops route
+    private final double[] stopArc;
+    private final int[] stopIndex;
+    // Inverse of stopIndex, -1 for a stop that could not be placed
+    private final int[] stopOrder;
+
+    private final SegmentHash segments;
+
+    // Segments behind and ahead of the last answer that track checks before searching the hash
+    private static final int TRACK_AHEAD = 3;
+    private static final double TRACK_TOLERANCE = 1.5;
+
+    RouteTimeline(ShoalRoute path, ShoalRoute stops) {
+        this.path = path;
+        int size = path.size();
+        arc = new double[size];
+        for (int i = 1; i < size; i++)
+        {
+            arc[i] = arc[i - 1] + Math.hypot(path.getX(i) - path.getX(i - 1), path.getY(i) - path.getY(i - 1));
+        }
+        length = size == 0 ? 0 : arc[size - 1];
+        segments = new SegmentHash(path);
+
+        // Stops are recorded on path tiles; place each at the first path point it matches
+        long[] keyed = new long[stops.size()];
+        int count = 0;
+        for (int k = 0; k < stops.size(); k++)
+        {
+            int point = closestPoint(stops.getX(k), stops.getY(k));
+            if (point >= 0) {
+                keyed[count++] = ((long) point << 32) | k;
+            }
+        }
+        Arrays.sort(keyed, 0, count);
+        stopArc = new double[count];
+        stopIndex = new int[count];
+        stopOrder = new int[stops.size()];
+        Arrays.fill(stopOrder, -1);
+        for (int k = 0; k < count; k++)
+        {
+            stopArc[k] = arc[(int) (keyed[k] >>> 32)];
+            stopIndex[k] = (int) keyed[k];
+            stopOrder[stopIndex[k]] = k;
+        }
+    }
+
+    private int closestPoint(int x, int y) {
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < path.size(); i++)
+        {
+            long dx = path.getX(i) - x;
+            long dy = path.getY(i) - y;
+            long distance = dx * dx + dy * dy;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    public boolean isEmpty() {
+        return path.size() < 2 || length <= 0;
+    }
+
+    public ShoalRoute getPath() {
+        return path;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    public double getArc(int index) {
+        return arc[index];
+    }
+
+    public double wrap(double position) {
+        double wrapped = position % length;
+        return wrapped < 0 ? wrapped + length : wrapped;
+    }
+
+    // Forward distance along the loop from one arc position to another
+    public double distance(double from, double to) {
+        return wrap(to - from);
+    }
+
+    // Segment i (from point i to i + 1) containing the arc position, by binary search
+    public int segmentAt(double position) {
+        position = wrap(position);
+        int low = 0;
+        int high = arc.length - 2;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (arc[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int getStopCount() {
+        return stopArc.length;
+    }
+
+    public double getStopArc(int k) {
+        return stopArc[k];
+    }
+
+    // Index into the stops route of the k-th stop along the path
+    public int getStopIndex(int k) {
+        return stopIndex[k];
+    }
+
+    // Position along the path of a stop given by its index in the stops route, -1 if it is not on the path
+    public int getStopOrder(int index) {
+        return index < stopOrder.length ? stopOrder[index] : -1;
+    }
+
+    // First stop strictly ahead of the arc position, wrapping round the loop; -1 without stops
+    public int nextStop(double position) {
+        if (stopArc.length == 0) {
+            return -1;
+        }
+        position = wrap(position);
+        int low = 0;
+        int high = stopArc.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (stopArc[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == stopArc.length ? 0 : low;
+    }
+
+    // Position at an arc length in local units (tile * 128 + 64)
+    public int getXAt(double position) {
+        int i = segmentAt(position);
+        return toLocal(path.getX(i) + (path.getX(i + 1) - path.getX(i)) * fraction(i, position));
+    }
+
+    public int getYAt(double position) {
+        int i = segmentAt(position);
+        return toLocal(path.getY(i) + (path.getY(i + 1) - path.getY(i)) * fraction(i, position));
+    }
+
+    private double fraction(int segment, double position) {
+        double segmentLength = arc[segment + 1] - arc[segment];
+        return segmentLength <= 0 ? 0 : (wrap(position) - arc[segment]) / segmentLength;
+    }
+
+    private static int toLocal(double tile) {
+        return (int) Math.round(tile * Perspective.LOCAL_TILE_SIZE) + Perspective.LOCAL_TILE_SIZE / 2;
+    }
+
+    // Finds the nearest segment to (x, y), in local units, through the segment hash. Where the path passes
+    // the same spot twice, the answer closest to the cursor's previous position wins. False if off the path
+    public boolean locate(int x, int y, RouteCursor cursor) {
+        if (isEmpty()) {
+            cursor.reset();
+            return false;
+        }
+        double tileX = toTile(x);
+        double tileY = toTile(y);
+        int slot = segments.find((int) Math.floor(tileX), (int) Math.floor(tileY));
+        if (slot < 0) {
+            cursor.reset();
+            return false;
+        }
+
+        double preferred = cursor.getPosition();
+        int best = -1;
+        double bestFraction = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int e = segments.getStart(slot); e < segments.getEnd(slot); e++)
+        {
+            int i = segments.getSegment(e);
+            double t = fractionOn(i, tileX, tileY);
+            double distance = distanceSq(i, t, tileX, tileY);
+            if (preferred >= 0 && best >= 0 && Math.abs(distance - bestDistance) < 0.25) {
+                // Close enough to call it the same spot; keep whichever is nearer the previous answer
+                if (loopGap(preferred, arcOn(i, t)) >= loopGap(preferred, arcOn(best, bestFraction))) {
+                    continue;
+                }
+            } else if (distance >= bestDistance) {
+                continue;
+            }
+            best = i;
+            bestFraction = t;
+            bestDistance = Math.min(bestDistance, distance);
+        }
+        if (bestDistance > SegmentHash.REACH * SegmentHash.REACH) {
+            cursor.reset();
+            return false;
+        }
+        cursor.set(best, bestFraction, arcOn(best, bestFraction), Math.sqrt(distanceSq(best, bestFraction, tileX, tileY)));
+        return true;
+    }
+
+    // Follows a moving point from the cursor's last answer by checking only the neighbouring segments,
+    // falling back to locate when the point has left them
+    public boolean track(int x, int y, RouteCursor cursor) {
+        if (!cursor.isValid() || isEmpty()) {
+            return locate(x, y, cursor);
+        }
+        double tileX = toTile(x);
+        double tileY = toTile(y);
+        int segmentCount = arc.length - 1;
+
+        int best = -1;
+        double bestFraction = 0;
+        double bestDistance = Double.MAX_VALUE;
+        // Paths repeat points where the shoal waits, so zero-length segments do not count towards the window
+        int i = Math.floorMod(cursor.getSegment() - 1, segmentCount);
+        for (int checked = 0, visited = 0; checked <= TRACK_AHEAD + 1 && visited < segmentCount; visited++, i = (i + 1) % segmentCount)
+        {
+            if (arc[i + 1] == arc[i]) {
+                continue;
+            }
+            checked++;
+            double t = fractionOn(i, tileX, tileY);
+            double distance = distanceSq(i, t, tileX, tileY);
+            if (distance < bestDistance) {
+                best = i;
+                bestFraction = t;
+                bestDistance = distance;
+            }
+        }
+        if (bestDistance > TRACK_TOLERANCE * TRACK_TOLERANCE) {
+            return locate(x, y, cursor);
+        }
+        cursor.set(best, bestFraction, arcOn(best, bestFraction), Math.sqrt(bestDistance));
+        return true;
+    }
+
+    private static double toTile(int local) {
+        return (local - Perspective.LOCAL_TILE_SIZE / 2) / (double) Perspective.LOCAL_TILE_SIZE;
+    }
+
+    // Parameter of the closest point to (tileX, tileY) on segment i, clamped to the segment
+    private double fractionOn(int i, double tileX, double tileY) {
+        double ax = path.getX(i);
+        double ay = path.getY(i);
+        double dx = path.getX(i + 1) - ax;
+        double dy = path.getY(i + 1) - ay;
+        double lengthSq = dx * dx + dy * dy;
+        return lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((tileX - ax) * dx + (tileY - ay) * dy) / lengthSq));
+    }
+
+    private double distanceSq(int i, double t, double tileX, double tileY) {
+        double px = path.getX(i) + (path.getX(i + 1) - path.getX(i)) * t - tileX;
+        double py = path.getY(i) + (path.getY(i + 1) - path.getY(i)) * t - tileY;
+        return px * px + py * py;
+    }
+
+    private double arcOn(int i, double t) {
+        return arc[i] + (arc[i + 1] - arc[i]) * t;
+    }
+
+    // Distance between two arc positions either way round the loop
+    private double loopGap(double a, double b) {
+        return Math.min(distance(a, b), distance(b, a));
+    }
+}
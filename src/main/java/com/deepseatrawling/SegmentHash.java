@@ -0,0 +1,127 @@
+package com.deepseatrawling;
+
+import java.util.Arrays;
+
+/*
+ * Spatial hash of the segments of one path. Every segment is filed under each 4x4 tile cell that its
+ * bounding box, grown by REACH tiles, touches, so all segments within REACH of a point are found by
+ * reading the single cell the point falls in. Cells live in an open-addressed table keyed by cell
+ * coordinates; a lookup is one hash probe and a walk over a short run of segment indices.
+ */
+public class SegmentHash {
+
+    public static final int REACH = 2;
+
+    private static final int CELL_SHIFT = 2;
+    private static final int FREE = Integer.MIN_VALUE;
+
+    // Linear-probed cell key -> run segments[cellStart[slot] .. cellEnd[slot])
+    private final int[] keys;
+    private final int[] cellStart;
+    private final int[] cellEnd;
+    private final int[] segments;
+
+    SegmentHash(ShoalRoute path) {
+        int segmentCount = Math.max(0, path.size() - 1);
+
+        int entries = 0;
+        for (int i = 0; i < segmentCount; i++)
+        {
+            entries += cellsX(path, i) * cellsY(path, i);
+        }
+
+        long[] keyed = new long[entries];
+        int count = 0;
+        for (int i = 0; i < segmentCount; i++)
+        {
+            int minCellX = (Math.min(path.getX(i), path.getX(i + 1)) - REACH) >> CELL_SHIFT;
+            int minCellY = (Math.min(path.getY(i), path.getY(i + 1)) - REACH) >> CELL_SHIFT;
+            for (int cellX = minCellX; cellX < minCellX + cellsX(path, i); cellX++)
+            {
+                for (int cellY = minCellY; cellY < minCellY + cellsY(path, i); cellY++)
+                {
+                    keyed[count++] = ((long) cellKey(cellX, cellY) << 32) | i;
+                }
+            }
+        }
+        Arrays.sort(keyed);
+
+        int capacity = 16;
+        while (capacity < entries * 2)
+        {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        cellStart = new int[capacity];
+        cellEnd = new int[capacity];
+        Arrays.fill(keys, FREE);
+        segments = new int[entries];
+
+        int slot = -1;
+        for (int e = 0; e < entries; e++)
+        {
+            int key = (int) (keyed[e] >> 32);
+            if (slot < 0 || keys[slot] != key) {
+                slot = insert(key, e);
+            }
+            segments[e] = (int) keyed[e];
+            cellEnd[slot] = e + 1;
+        }
+    }
+
+    private static int cellsX(ShoalRoute path, int i) {
+        return ((Math.max(path.getX(i), path.getX(i + 1)) + REACH) >> CELL_SHIFT)
+                - ((Math.min(path.getX(i), path.getX(i + 1)) - REACH) >> CELL_SHIFT) + 1;
+    }
+
+    private static int cellsY(ShoalRoute path, int i) {
+        return ((Math.max(path.getY(i), path.getY(i + 1)) + REACH) >> CELL_SHIFT)
+                - ((Math.min(path.getY(i), path.getY(i + 1)) - REACH) >> CELL_SHIFT) + 1;
+    }
+
+    private int insert(int key, int start) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE)
+        {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        cellStart[slot] = start;
+        return slot;
+    }
+
+    // Slot of the cell holding the tile, -1 if no segment comes within REACH of it
+    public int find(int tileX, int tileY) {
+        int key = cellKey(tileX >> CELL_SHIFT, tileY >> CELL_SHIFT);
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != FREE; slot = (slot + 1) & mask)
+        {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    public int getStart(int slot) {
+        return cellStart[slot];
+    }
+
+    public int getEnd(int slot) {
+        return cellEnd[slot];
+    }
+
+    public int getSegment(int entry) {
+        return segments[entry];
+    }
+
+    private static int cellKey(int cellX, int cellY) {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
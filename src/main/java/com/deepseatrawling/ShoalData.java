@@ -1,22 +1,11 @@
 package com.deepseatrawling;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Properties;
 import net.runelite.api.GameObject;
 import net.runelite.api.NPC;
 import net.runelite.api.gameval.AnimationID;
 import net.runelite.api.gameval.ObjectID;
 import net.runelite.api.WorldEntity;
 import net.runelite.api.coords.LocalPoint;
-import net.runelite.api.coords.WorldPoint;
-
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.stream.Collectors;
 
 public class ShoalData {
 
@@ -34,6 +23,26 @@ public class ShoalData {
 
         private final int objectID;
 
+        // Species by object id - MIN_OBJECT_ID
+        private static final ShoalSpecies[] BY_OBJECT_ID;
+        private static final int MIN_OBJECT_ID;
+
+        static {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (ShoalSpecies s : values())
+            {
+                min = Math.min(min, s.objectID);
+                max = Math.max(max, s.objectID);
+            }
+            MIN_OBJECT_ID = min;
+            BY_OBJECT_ID = new ShoalSpecies[max - min + 1];
+            for (ShoalSpecies s : values())
+            {
+                BY_OBJECT_ID[s.objectID - min] = s;
+            }
+        }
+
         public ShoalDepth defaultDepth()
         {
             switch (this)
@@ -51,15 +60,14 @@ public class ShoalData {
             this.objectID = objectID;
         }
 
+        public int getObjectId() {
+            return objectID;
+        }
+
         public static ShoalSpecies fromGameObjectId(int id)
         {
-            for (ShoalSpecies s : values())
-            {
-                if (s.objectID == id) {
-                    return s;
-                }
-            }
-            return null;
+            int index = id - MIN_OBJECT_ID;
+            return index >= 0 && index < BY_OBJECT_ID.length ? BY_OBJECT_ID[index] : null;
         }
 
     }
@@ -92,32 +100,46 @@ public class ShoalData {
     private NPC shoalNpc;
 
     private ShoalDepth depth;
-
-    private static final String RESOURCE_NAME = "shoals.properties";
+    // Game tick the ripples last showed a depth other than the one they showed before, -1 before the first.
+    // Arriving, the species default and the ripple NPC respawning are not changes
+    private int depthChangedTick = -1;
+    private ShoalDepth lastObservedDepth;
+    // The depth was read from the ripple animation rather than assumed from the species
+    private boolean depthObserved;
 
     private final WorldEntity worldEntity;
     private final int worldViewId;
     private ShoalSpecies species;
 
     private GameObject shoalObject;
+    // Footprint of the shoal object in tiles, 0 until it has spawned
+    private int size;
 
     //private WorldPoint last;
     private LocalPoint current;
     //private LocalPoint next;
     private boolean wasMoving;
 
-    private List<WorldPoint> pathPoints = new ArrayList<>();
-    private List<WorldPoint> stopPoints = new ArrayList<>();
+    private final ShoalRouteRegistry routes;
 
-    public ShoalData(int worldViewId, WorldEntity worldEntity) throws IOException {
+    // Where the shoal sits on its route timeline, and its moving speed in tiles per tick
+    private final RouteCursor cursor = new RouteCursor();
+    private int progressTick;
+    private double speed;
+    private static final double SPEED_ALPHA = 0.3;
+
+    public ShoalData(int worldViewId, WorldEntity worldEntity, ShoalRouteRegistry routes) {
         this.worldViewId = worldViewId;
         this.worldEntity = worldEntity;
-        load();
+        this.routes = routes;
     }
 
     public void setSpecies(ShoalSpecies species) {
         this.species = species;
-        this.depth = species.defaultDepth();
+        // The species default only stands in until the ripples have shown the real depth
+        if (depth == null || depth == ShoalDepth.UNKNOWN) {
+            this.depth = species.defaultDepth();
+        }
     }
 
     public ShoalSpecies getSpecies() {
@@ -128,8 +150,21 @@ public class ShoalData {
         return depth;
     }
 
-    public void setDepth(ShoalDepth depth) {
+    public boolean setDepth(ShoalDepth depth) {
+        depthObserved = false;
+        if (depth == this.depth) {
+            return false;
+        }
         this.depth = depth;
+        return true;
+    }
+
+    public int getDepthChangedTick() {
+        return depthChangedTick;
+    }
+
+    public boolean isDepthObserved() {
+        return depthObserved;
     }
 
 
@@ -141,6 +176,14 @@ public class ShoalData {
         return shoalObject;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
     public WorldEntity getWorldEntity() {
         return worldEntity;
     }
@@ -179,116 +222,127 @@ public class ShoalData {
         stopPoints.add(worldPoint);
     }
 */
-    public List<WorldPoint> getPathPoints() {
-        return pathPoints;
+    // Empty until the registry has finished loading in the background
+    public ShoalRoute getPath() {
+        return routes.getPath(worldViewId);
     }
 
-    public List<WorldPoint> getStopPoints() {
-        return stopPoints;
+    public ShoalRoute getStops() {
+        return routes.getStops(worldViewId);
     }
 
-    public boolean getWasMoving() {
-        return wasMoving;
+    public RouteTimeline getTimeline() {
+        return routes.getTimeline(worldViewId);
     }
 
-    public void setWasMoving(boolean wasMoving) { this.wasMoving = wasMoving; }
+    // Places the shoal on its route from its location in world local units (tile * 128 + 64)
+    public void updateProgress(int x, int y, boolean moving, int tick) {
+        RouteTimeline timeline = getTimeline();
+        double previous = cursor.getPosition();
+        if (!timeline.track(x, y, cursor)) {
+            return;
+        }
 
-    public void setShoalNpc(NPC shoalNpc) {
-        this.shoalNpc = shoalNpc;
+        int ticks = tick - progressTick;
+        if (moving && previous >= 0 && ticks > 0) {
+            double moved = timeline.distance(previous, cursor.getPosition());
+            // Anything more than half the loop is a jump to another part of the route, not movement
+            if (moved > 0 && moved < timeline.getLength() / 2) {
+                double sample = moved / ticks;
+                speed = speed <= 0 ? sample : SPEED_ALPHA * sample + (1 - SPEED_ALPHA) * speed;
+            }
+        }
+        progressTick = tick;
     }
 
-    private void load() throws IOException
-    {
-        Properties properties = new Properties();
-        String idStr;
-        int id;
-        String value;
+    public RouteCursor getCursor() {
+        return cursor;
+    }
 
-        try (InputStream in = getClass().getResourceAsStream("/" + RESOURCE_NAME))
-        {
-            if (in == null) {
-                throw new IOException("Could not find resource: " + RESOURCE_NAME);
-            }
-            properties.load(in);
-        }
+    public double getProgress() {
+        return cursor.getPosition();
+    }
 
-        for (String key : properties.stringPropertyNames())
-        {
-            if (key.startsWith("shoalpath."))
-            {
-                idStr = key.substring("shoalpath.".length());
-                if(Integer.parseInt(idStr) == getWorldViewId()) {
-                    value = properties.getProperty(key);
-                    this.pathPoints = parsePoints(value);
-                }
-            }
+    // Observed moving speed in tiles per tick, 0 until the shoal has been seen moving
+    public double getSpeed() {
+        return speed;
+    }
 
-            if (key.startsWith("shoalstops.")) {
-                idStr = key.substring("shoalstops.".length());
-                if (Integer.parseInt(idStr) == getWorldViewId()) {
-                    value = properties.getProperty(key);
-                    this.stopPoints = parsePoints(value);
-                }
-            }
-        }
+    // Index into getTimeline()'s stops of the stop the shoal is heading to, -1 if unknown
+    public int getNextStop() {
+        return cursor.isValid() ? getTimeline().nextStop(cursor.getPosition()) : -1;
     }
 
-    private List<WorldPoint> parsePoints(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return Collections.emptyList();
+    // Ticks of travel until the next stop at the observed speed, -1 if unknown
+    public int getTicksToNextStop() {
+        int next = getNextStop();
+        if (next < 0 || speed <= 0) {
+            return -1;
         }
+        RouteTimeline timeline = getTimeline();
+        return (int) Math.ceil(timeline.distance(cursor.getPosition(), timeline.getStopArc(next)) / speed);
+    }
 
-        return Arrays.stream(value.split("\\|"))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(this::parsePoint)
-                .collect(Collectors.toList());
+    // Arc position the shoal will have reached after the given number of ticks of travel
+    public double predictProgress(int ticks) {
+        return cursor.isValid() ? getTimeline().wrap(cursor.getPosition() + speed * ticks) : -1;
     }
 
-    private WorldPoint parsePoint(String token)
-    {
-        String[] parts = token.split(", ");
-        if(parts.length < 2)
-        {
-            throw new IllegalArgumentException("Invalid Point: " + token);
-        }
+    public boolean getWasMoving() {
+        return wasMoving;
+    }
 
-        int x = Integer.parseInt(parts[0].trim());
-        int y = Integer.parseInt(parts[1].trim());
-        int plane = Integer.parseInt(parts[2].trim());
+    public void setWasMoving(boolean wasMoving) { this.wasMoving = wasMoving; }
 
-        return new WorldPoint(x, y, plane);
+    public void setShoalNpc(NPC shoalNpc) {
+        this.shoalNpc = shoalNpc;
     }
 
-    public void setDepthFromAnimation()
+    // Reads the depth from the ripple NPC's current animation; returns true if the depth changed
+    public boolean updateDepthFromAnimation(int tick)
     {
         if (shoalNpc == null)
         {
-            this.depth = ShoalDepth.UNKNOWN;
-            return;
+            // Keep the species default until the ripples are seen
+            return false;
         }
         int animation = shoalNpc.getAnimation();
         if (animation == -1)
         {
-            return;
+            return false;
         }
 
+        ShoalDepth newDepth;
         switch (animation)
         {
 			case AnimationID.DEEP_SEA_TRAWLING_SHOAL_SHALLOW:
-                this.depth = ShoalDepth.SHALLOW;
+                newDepth = ShoalDepth.SHALLOW;
                 break;
             case AnimationID.DEEP_SEA_TRAWLING_SHOAL_MID:
-                this.depth = ShoalDepth.MEDIUM;
+                newDepth = ShoalDepth.MEDIUM;
                 break;
             case AnimationID.DEEP_SEA_TRAWLING_SHOAL_DEEP:
-                this.depth = ShoalDepth.DEEP;
+                newDepth = ShoalDepth.DEEP;
                 break;
             default:
-                this.depth = ShoalDepth.UNKNOWN;
+                newDepth = ShoalDepth.UNKNOWN;
 
         }
+        return observeDepth(newDepth, tick);
+    }
 
+    // Takes a depth the ripples showed; only a known depth other than the last one shown counts as a change
+    boolean observeDepth(ShoalDepth newDepth, int tick)
+    {
+        boolean changed = setDepth(newDepth);
+        depthObserved = newDepth != ShoalDepth.UNKNOWN;
+        if (depthObserved) {
+            if (lastObservedDepth != null && lastObservedDepth != newDepth) {
+                depthChangedTick = tick;
+            }
+            lastObservedDepth = newDepth;
+        }
+        return changed;
     }
 
     public NPC getShoalNpc() {
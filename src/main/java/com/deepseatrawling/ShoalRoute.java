@@ -0,0 +1,45 @@
+package com.deepseatrawling;
+
+public class ShoalRoute {
+
+    public static final ShoalRoute EMPTY = new ShoalRoute(new int[0], new int[0], new int[0]);
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] planes;
+    private final RouteGrid grid;
+
+    ShoalRoute(int[] xs, int[] ys, int[] planes) {
+        if (xs.length != ys.length || xs.length != planes.length) {
+            throw new IllegalArgumentException("Mismatched route arrays");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.planes = planes;
+        this.grid = new RouteGrid(xs, ys);
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public boolean isEmpty() {
+        return xs.length == 0;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public int getPlane(int index) {
+        return planes[index];
+    }
+
+    public RouteGrid getGrid() {
+        return grid;
+    }
+}
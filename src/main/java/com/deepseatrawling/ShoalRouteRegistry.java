@@ -0,0 +1,183 @@
+package com.deepseatrawling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+@Slf4j
+@Singleton
+public class ShoalRouteRegistry {
+
+    public static final int MIN_WORLD_VIEW_ID = 14;
+    public static final int MAX_WORLD_VIEW_ID = 29;
+
+    // Compiled from shoals.properties by the compileShoalRoutes Gradle task:
+    // header  int magic, byte version, short routeCount
+    // index   routeCount x (short worldViewId, path{int offset, int length, short count}, stops{...})
+    // data    per point zig-zag varint deltas of x, y, plane from the previous point
+    private static final String RESOURCE_NAME = "shoals.bin";
+    private static final int MAGIC = 0x44535452;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 7;
+    private static final int INDEX_ENTRY_SIZE = 22;
+
+    // Swapped in whole once loading finishes, so readers on the client thread never block
+    private volatile ShoalRoute[] paths = emptyTable();
+    private volatile ShoalRoute[] stops = emptyTable();
+    private volatile RouteTimeline[] timelines = emptyTimelines();
+
+    private CompletableFuture<Void> loading;
+
+    public synchronized CompletableFuture<Void> loadAsync(Executor executor)
+    {
+        if (loading == null || loading.isCompletedExceptionally())
+        {
+            loading = CompletableFuture.runAsync(() ->
+            {
+                try
+                {
+                    load();
+                }
+                catch (IOException e)
+                {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        return loading;
+    }
+
+    void load() throws IOException
+    {
+        byte[] bytes;
+        try (InputStream in = getClass().getResourceAsStream("/" + RESOURCE_NAME))
+        {
+            if (in == null) {
+                throw new IOException("Could not find resource: " + RESOURCE_NAME);
+            }
+            bytes = in.readAllBytes();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try
+        {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Unsupported route format: " + RESOURCE_NAME);
+            }
+
+            ShoalRoute[] paths = emptyTable();
+            ShoalRoute[] stops = emptyTable();
+            RouteTimeline[] timelines = emptyTimelines();
+            int routeCount = buffer.getShort() & 0xFFFF;
+            int dataStart = HEADER_SIZE + routeCount * INDEX_ENTRY_SIZE;
+            for (int i = 0; i < routeCount; i++)
+            {
+                int index = indexOf(buffer.getShort());
+                ShoalRoute path = readRoute(bytes, dataStart, buffer);
+                ShoalRoute stopRoute = readRoute(bytes, dataStart, buffer);
+                if (index >= 0) {
+                    paths[index] = path;
+                    stops[index] = stopRoute;
+                    timelines[index] = new RouteTimeline(path, stopRoute);
+                }
+            }
+
+            this.paths = paths;
+            this.stops = stops;
+            this.timelines = timelines;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException e)
+        {
+            throw new IOException("Truncated route resource: " + RESOURCE_NAME, e);
+        }
+
+        log.debug("Loaded shoal routes for worldViewIds {}-{}", MIN_WORLD_VIEW_ID, MAX_WORLD_VIEW_ID);
+    }
+
+    public ShoalRoute getPath(int worldViewId) {
+        int index = indexOf(worldViewId);
+        return index < 0 ? ShoalRoute.EMPTY : paths[index];
+    }
+
+    public ShoalRoute getStops(int worldViewId) {
+        int index = indexOf(worldViewId);
+        return index < 0 ? ShoalRoute.EMPTY : stops[index];
+    }
+
+    public RouteTimeline getTimeline(int worldViewId) {
+        int index = indexOf(worldViewId);
+        return index < 0 ? RouteTimeline.EMPTY : timelines[index];
+    }
+
+    private static RouteTimeline[] emptyTimelines() {
+        RouteTimeline[] table = new RouteTimeline[MAX_WORLD_VIEW_ID - MIN_WORLD_VIEW_ID + 1];
+        Arrays.fill(table, RouteTimeline.EMPTY);
+        return table;
+    }
+
+    private static ShoalRoute[] emptyTable() {
+        ShoalRoute[] table = new ShoalRoute[MAX_WORLD_VIEW_ID - MIN_WORLD_VIEW_ID + 1];
+        Arrays.fill(table, ShoalRoute.EMPTY);
+        return table;
+    }
+
+    private static int indexOf(int worldViewId) {
+        if (worldViewId < MIN_WORLD_VIEW_ID || worldViewId > MAX_WORLD_VIEW_ID) {
+            return -1;
+        }
+        return worldViewId - MIN_WORLD_VIEW_ID;
+    }
+
+    private static ShoalRoute readRoute(byte[] bytes, int dataStart, ByteBuffer index) {
+        int offset = index.getInt();
+        int length = index.getInt();
+        int count = index.getShort() & 0xFFFF;
+        if (count == 0) {
+            return ShoalRoute.EMPTY;
+        }
+
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        int[] planes = new int[count];
+        int[] cursor = { dataStart + offset };
+        int x = 0;
+        int y = 0;
+        int plane = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            x += readVarInt(bytes, cursor);
+            y += readVarInt(bytes, cursor);
+            plane += readVarInt(bytes, cursor);
+            xs[i] = x;
+            ys[i] = y;
+            planes[i] = plane;
+        }
+
+        if (cursor[0] != dataStart + offset + length) {
+            throw new IndexOutOfBoundsException("Route length mismatch");
+        }
+        return new ShoalRoute(xs, ys, planes);
+    }
+
+    // zig-zag encoded, 7 bits per byte, low bits first
+    private static int readVarInt(byte[] bytes, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        while (((b = bytes[cursor[0]++] & 0xFF) & 0x80) != 0) {
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        value |= b << shift;
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
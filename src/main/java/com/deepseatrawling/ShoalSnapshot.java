@@ -0,0 +1,113 @@
+package com.deepseatrawling;
+
+import net.runelite.api.GameObject;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.LocalPoint;
+
+/*
+ * What the overlays draw for one shoal, copied from its ShoalData when a TrawlingState is built. The
+ * route, stops and timeline are the registry's own read-only objects; everything else is a value, so
+ * the render thread never reads the ShoalData the client thread keeps updating.
+ */
+public final class ShoalSnapshot {
+
+    private final int worldViewId;
+    private final ShoalData.ShoalSpecies species;
+    private final ShoalData.ShoalDepth depth;
+    private final int size;
+    private final LocalPoint objectLocation;
+    private final LocalPoint current;
+    private final int plane;
+    private final boolean moving;
+    private final boolean onRoute;
+    private final double progress;
+    private final int nextStop;
+    private final int ticksToNextStop;
+    private final ShoalRoute path;
+    private final ShoalRoute stops;
+    private final RouteTimeline timeline;
+
+    ShoalSnapshot(ShoalData shoal) {
+        worldViewId = shoal.getWorldViewId();
+        species = shoal.getSpecies();
+        depth = shoal.getDepth();
+        size = shoal.getSize();
+        GameObject object = shoal.getShoalObject();
+        objectLocation = object == null ? null : object.getLocalLocation();
+        current = shoal.getCurrent();
+        WorldView view = shoal.getWorldEntity().getWorldView();
+        plane = view == null ? -1 : view.getPlane();
+        moving = shoal.getWasMoving();
+        onRoute = shoal.getCursor().isValid();
+        progress = shoal.getProgress();
+        nextStop = shoal.getNextStop();
+        ticksToNextStop = shoal.getTicksToNextStop();
+        path = shoal.getPath();
+        stops = shoal.getStops();
+        timeline = shoal.getTimeline();
+    }
+
+    public int getWorldViewId() {
+        return worldViewId;
+    }
+
+    public ShoalData.ShoalSpecies getSpecies() {
+        return species;
+    }
+
+    public ShoalData.ShoalDepth getDepth() {
+        return depth;
+    }
+
+    // Footprint of the shoal object in tiles, 0 until it has spawned
+    public int getSize() {
+        return size;
+    }
+
+    // Location of the shoal object, null until it has spawned
+    public LocalPoint getObjectLocation() {
+        return objectLocation;
+    }
+
+    public LocalPoint getCurrent() {
+        return current;
+    }
+
+    // Plane of the shoal's world view, -1 if it has none
+    public int getPlane() {
+        return plane;
+    }
+
+    public boolean getWasMoving() {
+        return moving;
+    }
+
+    // Whether the shoal has been placed on its route timeline
+    public boolean isOnRoute() {
+        return onRoute;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    public int getNextStop() {
+        return nextStop;
+    }
+
+    public int getTicksToNextStop() {
+        return ticksToNextStop;
+    }
+
+    public ShoalRoute getPath() {
+        return path;
+    }
+
+    public ShoalRoute getStops() {
+        return stops;
+    }
+
+    public RouteTimeline getTimeline() {
+        return timeline;
+    }
+}
@@ -0,0 +1,101 @@
+package com.deepseatrawling;
+
+import java.util.Arrays;
+
+/*
+ * Every shoal WorldEntity currently spawned. Shoals only ever use worldViewIds 14-29, the same ids the
+ * route registry and depth schedule index by, so each has a fixed slot; a dense array alongside keeps
+ * iterating the shoals a plain array walk. A shoal outside that range has no route and is not tracked.
+ */
+public class ShoalTracker {
+
+    private static final int SLOTS = ShoalRouteRegistry.MAX_WORLD_VIEW_ID - ShoalRouteRegistry.MIN_WORLD_VIEW_ID + 1;
+
+    // By worldViewId - MIN_WORLD_VIEW_ID
+    private final ShoalData[] bySlot = new ShoalData[SLOTS];
+    private final ShoalData[] shoals = new ShoalData[SLOTS];
+    private int size;
+
+    private ShoalData nearest;
+
+    public int size() {
+        return size;
+    }
+
+    // The k-th tracked shoal, in no particular order
+    public ShoalData get(int k) {
+        return shoals[k];
+    }
+
+    public ShoalData find(int worldViewId) {
+        int slot = slotOf(worldViewId);
+        return slot < 0 ? null : bySlot[slot];
+    }
+
+    public void add(ShoalData shoal) {
+        int slot = slotOf(shoal.getWorldViewId());
+        if (slot < 0) {
+            return;
+        }
+
+        ShoalData previous = bySlot[slot];
+        bySlot[slot] = shoal;
+        if (previous == null) {
+            shoals[size++] = shoal;
+            return;
+        }
+        shoals[indexOf(previous)] = shoal;
+        if (previous == nearest) {
+            nearest = null;
+        }
+    }
+
+    public ShoalData remove(int worldViewId) {
+        int slot = slotOf(worldViewId);
+        if (slot < 0 || bySlot[slot] == null) {
+            return null;
+        }
+
+        ShoalData removed = bySlot[slot];
+        bySlot[slot] = null;
+
+        // Keep the array dense by moving the last shoal into the gap
+        int last = --size;
+        shoals[indexOf(removed)] = shoals[last];
+        shoals[last] = null;
+
+        if (removed == nearest) {
+            nearest = null;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(bySlot, null);
+        Arrays.fill(shoals, null);
+        size = 0;
+        nearest = null;
+    }
+
+    public ShoalData getNearest() {
+        return nearest;
+    }
+
+    public void setNearest(ShoalData nearest) {
+        this.nearest = nearest;
+    }
+
+    private int indexOf(ShoalData shoal) {
+        int index = 0;
+        while (shoals[index] != shoal)
+        {
+            index++;
+        }
+        return index;
+    }
+
+    private static int slotOf(int worldViewId) {
+        int slot = worldViewId - ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+        return slot < 0 || slot >= SLOTS ? -1 : slot;
+    }
+}
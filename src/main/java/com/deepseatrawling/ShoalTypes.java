@@ -1,8 +1,5 @@
 package com.deepseatrawling;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public enum ShoalTypes {
     GIANT_KRILL(26, 27, 28, 29),
     HADDOCK(23, 24, 25),
@@ -11,16 +8,6 @@ public enum ShoalTypes {
     BLUEFIN(16, 17),
     MARLIN(14, 15);
 
-    private static final Map<Integer, ShoalTypes> SHOAL_ID = new HashMap<>();
-
-    static {
-        for (ShoalTypes type : values()) {
-            for (int id : type.ids) {
-                SHOAL_ID.put(id, type);
-            }
-        }
-    }
-
     private final int[] ids;
 
     ShoalTypes(int... ids) {
@@ -30,8 +17,4 @@ public enum ShoalTypes {
     public int[] getIds() {
         return ids;
     }
-
-    public static ShoalTypes fromId(int id) {
-        return SHOAL_ID.get(id);
-    }
 }
\ No newline at end of file
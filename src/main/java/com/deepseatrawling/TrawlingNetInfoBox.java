@@ -9,6 +9,10 @@ public class TrawlingNetInfoBox extends InfoBox {
     private final DeepSeaTrawling plugin;
     private final DeepSeaTrawlingConfig config;
 
+    // The count only changes on catches, so its text is rebuilt then rather than every frame
+    private int textQuantity = -1;
+    private String text = "";
+
     public TrawlingNetInfoBox(BufferedImage image, DeepSeaTrawling plugin, DeepSeaTrawlingConfig config)
     {
         super(image, plugin);
@@ -19,21 +23,31 @@ public class TrawlingNetInfoBox extends InfoBox {
     @Override
     public boolean render()
     {
-        return plugin.fishQuantity > 0;
+        return plugin.getState().getFishInNets() > 0;
     }
 
     @Override
     public String getText()
     {
-        // Example: show fish count
-        return String.valueOf(plugin.fishQuantity);
+        int quantity = plugin.getState().getFishInNets();
+        if (quantity != textQuantity) {
+            textQuantity = quantity;
+            text = String.valueOf(quantity);
+        }
+        return text;
     }
 
     @Override
     public String getTooltip()
     {
-        // Example tooltip
-        return "Fish in nets: " + plugin.fishQuantity;
+        TrawlingState state = plugin.getState();
+        StringBuilder tooltip = new StringBuilder("Fish in nets: ").append(state.getFishInNets());
+        tooltip.append("</br>Fish/hr: ").append(state.getFishPerHour());
+        if (state.getFishPerShoal() >= 0) {
+            tooltip.append("</br>Fish per shoal: ").append(state.getFishPerShoal());
+        }
+        tooltip.append("</br>Total caught: ").append(state.getTotalFish());
+        return tooltip.toString();
     }
 
     @Override
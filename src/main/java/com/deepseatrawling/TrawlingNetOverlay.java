@@ -2,6 +2,8 @@ package com.deepseatrawling;
 
 import net.runelite.api.Client;
 import net.runelite.api.GameObject;
+import net.runelite.api.WorldEntity;
+import net.runelite.api.coords.LocalPoint;
 import net.runelite.client.config.Config;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
@@ -17,6 +19,24 @@ public class TrawlingNetOverlay extends Overlay {
     private final DeepSeaTrawling plugin;
     private final DeepSeaTrawlingConfig config;
 
+    private static final Stroke OUTLINE_STROKE = new BasicStroke(2);
+    private static final Color POLYGON_FILL = new Color(0, 0, 0, 50);
+
+    // Rebuilt from config on ConfigChanged
+    private boolean highlightFullNets;
+    private boolean highlightWrongDepthNets;
+    private DeepSeaTrawlingConfig.NetHighlightStyle netHighlightStyle = DeepSeaTrawlingConfig.NetHighlightStyle.OUTLINE;
+    private Color netFullColour = Color.RED;
+    private Color netFullFill = Color.RED;
+    private Color netDepthColour = Color.YELLOW;
+    private Color netDepthFill = Color.YELLOW;
+
+    // Net shapes are model projections, so each is kept until the net, its boat's position or the camera changes
+    private final CameraState camera = new CameraState();
+    private final GameObject[] cachedNets = new GameObject[2];
+    private final Shape[] cachedShapes = new Shape[2];
+    private final int[][] shapeKeys = new int[2][6];
+
     @Inject
     private TrawlingNetOverlay(Client client, DeepSeaTrawling plugin, DeepSeaTrawlingConfig config) {
         this.client = client;
@@ -26,63 +46,62 @@ public class TrawlingNetOverlay extends Overlay {
         setLayer(OverlayLayer.ABOVE_SCENE);
     }
 
+    public void rebuildStyles()
+    {
+        highlightFullNets = config.highlightFullNets();
+        highlightWrongDepthNets = config.highlightWrongDepthNets();
+        netHighlightStyle = config.netHighlightStyle();
+        netFullColour = config.netFullHighlightColour();
+        netFullFill = new Color(netFullColour.getRed(), netFullColour.getGreen(), netFullColour.getBlue(), 60);
+        netDepthColour = config.netDepthHighlightColour();
+        netDepthFill = new Color(netDepthColour.getRed(), netDepthColour.getGreen(), netDepthColour.getBlue(), 60);
+        cachedNets[0] = null;
+        cachedNets[1] = null;
+    }
+
     @Override
     public Dimension render(Graphics2D graphics) {
-        if (!config.highlightFullNets() && !config.highlightWrongDepthNets()) {
-            return null;
-        }
-
-        int totalNetSize = 0;
-        if (plugin.netList[0] != null)
-        {
-            totalNetSize += plugin.netList[0].getNetSize();
-        }
-        if (plugin.netList[1] != null)
-        {
-            totalNetSize += plugin.netList[1].getNetSize();
-        }
-        if (plugin.netList[0] == null && plugin.netList[1] == null)
-        {
+        if (!highlightFullNets && !highlightWrongDepthNets) {
             return null;
         }
 
-        ShoalData shoal = plugin.getNearestShoal();
-        if (shoal == null || shoal.getDepth() == ShoalData.ShoalDepth.UNKNOWN)
-        {
-            return null;
-        }
-
-        int desired = ShoalData.ShoalDepth.asInt(shoal.getDepth());
-        if (desired < 1)
+        TrawlingState state = plugin.getState();
+        if (state.getDesiredDepth() < 1 || state.isNetsFull())
         {
             return null;
         }
 
+        camera.update(client);
         for (int netIndex = 0; netIndex <= 1; netIndex++)
         {
-            GameObject netObj = plugin.netObjectByIndex[netIndex];
-            if (netObj == null) continue;
+            if (!state.isNetWrongDepth(netIndex)) continue;
 
-            Net net = plugin.netList[netIndex];
-            if (net == null) continue;
-
-            int current = Net.NetDepth.asInt(net.getNetDepth());
-            if (current <= 0 || current == desired || plugin.fishQuantity >= totalNetSize) continue;
-
-            trawlingNetOutline(graphics, plugin.fishQuantity, totalNetSize, plugin.netObjectByIndex[netIndex]);
+            trawlingNetOutline(graphics, state.isNetsFull(), netShape(netIndex, state.getNetObject(netIndex), state.getPlayerBoat(), state.getNetDepth(netIndex)));
         }
 
         return null;
 
     }
 
-    private void trawlingNetOutline(Graphics2D graphic, int fishQuantity, int totalNetSize, GameObject netObject) {
+    private Shape netShape(int netIndex, GameObject netObject, WorldEntity boat, int netDepth) {
         if (netObject == null) {
-            return;
+            cachedNets[netIndex] = null;
+            cachedShapes[netIndex] = null;
+            return null;
+        }
+
+        LocalPoint boatLocation = boat == null ? null : boat.getLocalLocation();
+        int[] key = shapeKeys[netIndex];
+        int boatX = boatLocation == null ? -1 : boatLocation.getX();
+        int boatY = boatLocation == null ? -1 : boatLocation.getY();
+        int boatOrientation = boat == null ? -1 : boat.getOrientation();
+        if (cachedNets[netIndex] == netObject && key[0] == boatX && key[1] == boatY && key[2] == boatOrientation
+                && key[3] == camera.getRevision() && key[4] == netHighlightStyle.ordinal() && key[5] == netDepth) {
+            return cachedShapes[netIndex];
         }
 
         Shape shape = null;
-        switch (config.netHighlightStyle()) {
+        switch (netHighlightStyle) {
             case CLICKBOX:
                 shape = netObject.getClickbox();
                 break;
@@ -91,22 +110,36 @@ public class TrawlingNetOverlay extends Overlay {
                 shape = netObject.getConvexHull();
                 break;
         }
+
+        cachedNets[netIndex] = netObject;
+        cachedShapes[netIndex] = shape;
+        key[0] = boatX;
+        key[1] = boatY;
+        key[2] = boatOrientation;
+        key[3] = camera.getRevision();
+        key[4] = netHighlightStyle.ordinal();
+        // The net model changes as it is raised or lowered
+        key[5] = netDepth;
+        return shape;
+    }
+
+    private void trawlingNetOutline(Graphics2D graphic, boolean netsFull, Shape shape) {
         if (shape == null) {
             return;
         }
 
-        if (fishQuantity >= totalNetSize && config.highlightFullNets()) {
-            if (config.netHighlightStyle() == DeepSeaTrawlingConfig.NetHighlightStyle.HULL_FILL) {
-                graphic.setColor(new Color(config.netFullHighlightColour().getRed(), config.netFullHighlightColour().getGreen(),config.netFullHighlightColour().getBlue(), 60));
+        if (netsFull && highlightFullNets) {
+            if (netHighlightStyle == DeepSeaTrawlingConfig.NetHighlightStyle.HULL_FILL) {
+                graphic.setColor(netFullFill);
                 graphic.fill(shape);
             }
-            OverlayUtil.renderPolygon(graphic, shape, config.netFullHighlightColour());
-        } else if (config.highlightWrongDepthNets()) {
-            if (config.netHighlightStyle() == DeepSeaTrawlingConfig.NetHighlightStyle.HULL_FILL) {
-                graphic.setColor(new Color(config.netDepthHighlightColour().getRed(), config.netDepthHighlightColour().getGreen(),config.netDepthHighlightColour().getBlue(), 60));
+            OverlayUtil.renderPolygon(graphic, shape, netFullColour, POLYGON_FILL, OUTLINE_STROKE);
+        } else if (highlightWrongDepthNets) {
+            if (netHighlightStyle == DeepSeaTrawlingConfig.NetHighlightStyle.HULL_FILL) {
+                graphic.setColor(netDepthFill);
                 graphic.fill(shape);
             }
-            OverlayUtil.renderPolygon(graphic, shape, config.netDepthHighlightColour());
+            OverlayUtil.renderPolygon(graphic, shape, netDepthColour, POLYGON_FILL, OUTLINE_STROKE);
         }
 
     }
@@ -0,0 +1,220 @@
+package com.deepseatrawling;
+
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import net.runelite.api.Player;
+import net.runelite.api.WorldEntity;
+import net.runelite.api.WorldView;
+
+import java.util.Arrays;
+
+/*
+ * Everything the overlays read from the plugin, copied out on the client thread at the end of each game tick
+ * and before any frame that follows an event changing it. A state is never modified once built; the plugin
+ * publishes each new one through a single volatile reference, so a frame sees one consistent tick without
+ * touching the plugin's maps, net arrays or shoal table. Shoals are copied into ShoalSnapshots.
+ */
+public final class TrawlingState {
+
+    public static final int NO_BOAT = BoatTracker.NO_BOAT;
+    // How far ahead of the shoal the learned depth schedule is read
+    public static final int DEPTH_LOOKAHEAD_TICKS = 5;
+
+    public static final TrawlingState EMPTY = new TrawlingState();
+
+    private final int revision;
+
+    private final ShoalSnapshot shoal;
+    private final ShoalSnapshot[] shoals;
+    private final boolean shoalsVisible;
+    private final int desiredDepth;
+    private final int upcomingDepth;
+
+    private final int fishInNets;
+    // Ledger figures for the info box tooltip, rounded as shown
+    private final long fishPerHour;
+    private final long fishPerShoal;
+    private final long totalFish;
+    private final int totalNetSize;
+    private final boolean netsFull;
+    private final GameObject[] netObjects = new GameObject[2];
+    private final Net.NetDepth[] netSettings = new Net.NetDepth[2];
+    private final int[] netDepths = new int[2];
+    private final boolean[] netWrongDepth = new boolean[2];
+
+    private final int playerBoatType;
+    private final WorldEntity playerBoat;
+
+    private TrawlingState() {
+        revision = 0;
+        shoal = null;
+        shoals = new ShoalSnapshot[0];
+        shoalsVisible = false;
+        desiredDepth = -1;
+        upcomingDepth = -1;
+        fishInNets = 0;
+        fishPerHour = 0;
+        fishPerShoal = -1;
+        totalFish = 0;
+        totalNetSize = 0;
+        netsFull = false;
+        netDepths[0] = netDepths[1] = -1;
+        playerBoatType = NO_BOAT;
+        playerBoat = null;
+    }
+
+    private TrawlingState(Client client, DeepSeaTrawling plugin, int revision) {
+        this.revision = revision;
+
+        Player player = client.getLocalPlayer();
+        WorldView playerView = player == null ? null : player.getWorldView();
+        int viewId = playerView == null ? -1 : playerView.getId();
+        playerBoatType = plugin.boats.getType(viewId);
+        playerBoat = plugin.boats.getEntity(viewId);
+
+        netObjects[0] = plugin.netObjectByIndex[0];
+        netObjects[1] = plugin.netObjectByIndex[1];
+        boolean netsDeployed = netObjects[0] != null || netObjects[1] != null;
+        int netSize = 0;
+        for (int netIndex = 0; netIndex < 2; netIndex++)
+        {
+            Net net = plugin.netList[netIndex];
+            if (net != null) {
+                netSettings[netIndex] = net.getNetDepth();
+                // Only nets on the player's boat hold fish; a skiff has just the one
+                if (netObjects[netIndex] != null) {
+                    netSize += net.getNetSize();
+                }
+            }
+        }
+        totalNetSize = netSize;
+        CatchLedger ledger = plugin.getLedger();
+        fishInNets = ledger.getFishInNets();
+        fishPerHour = Math.round(ledger.getFishPerHour(System.currentTimeMillis()));
+        fishPerShoal = ledger.getFishPerShoal() < 0 ? -1 : Math.round(ledger.getFishPerShoal());
+        totalFish = ledger.getTotalFish();
+        netsFull = fishInNets >= totalNetSize;
+
+        // Only the shoals enabled in the config are drawn
+        ShoalTracker tracker = plugin.getShoals();
+        ShoalData nearest = plugin.getNearestShoal();
+        ShoalSnapshot nearestSnapshot = null;
+        ShoalSnapshot[] tracked = new ShoalSnapshot[tracker.size()];
+        int count = 0;
+        for (int k = 0; k < tracker.size(); k++)
+        {
+            ShoalData candidate = tracker.get(k);
+            if (plugin.trackedShoals.get(candidate.getWorldViewId())) {
+                tracked[count] = new ShoalSnapshot(candidate);
+                if (candidate == nearest) {
+                    nearestSnapshot = tracked[count];
+                }
+                count++;
+            }
+        }
+        shoals = count == tracked.length ? tracked : Arrays.copyOf(tracked, count);
+
+        shoal = nearestSnapshot != null || nearest == null ? nearestSnapshot : new ShoalSnapshot(nearest);
+        shoalsVisible = !netsDeployed && tracker.size() > 0;
+        desiredDepth = nearest == null ? -1 : ShoalData.ShoalDepth.asInt(nearest.getDepth());
+        int upcoming = -1;
+        if (nearest != null && nearest.getCursor().isValid()) {
+            double ahead = nearest.predictProgress(DEPTH_LOOKAHEAD_TICKS);
+            upcoming = ShoalData.ShoalDepth.asInt(plugin.getDepthSchedule().expectedAt(nearest.getWorldViewId(), nearest.getTimeline(), ahead));
+        }
+        upcomingDepth = upcoming;
+
+        for (int netIndex = 0; netIndex < 2; netIndex++)
+        {
+            netDepths[netIndex] = netSettings[netIndex] == null ? -1 : Net.NetDepth.asInt(netSettings[netIndex]);
+            netWrongDepth[netIndex] = desiredDepth >= 1 && netDepths[netIndex] > 0 && netDepths[netIndex] != desiredDepth;
+        }
+    }
+
+    static TrawlingState build(Client client, DeepSeaTrawling plugin, int revision) {
+        return new TrawlingState(client, plugin, revision);
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    // The shoal nearest the player, whose depth the nets are compared against
+    public ShoalSnapshot getShoal() {
+        return shoal;
+    }
+
+    public int getShoalCount() {
+        return shoals.length;
+    }
+
+    // The k-th spawned shoal that is enabled in the config
+    public ShoalSnapshot getShoal(int k) {
+        return shoals[k];
+    }
+
+    // Shoals are spawned and no nets are out
+    public boolean isShoalsVisible() {
+        return shoalsVisible;
+    }
+
+    // Depth of the shoal as Net.NetDepth values use them, below 1 when unknown
+    public int getDesiredDepth() {
+        return desiredDepth;
+    }
+
+    // Depth the shoal has been seen at a few ticks further along its route, below 1 when unknown
+    public int getUpcomingDepth() {
+        return upcomingDepth;
+    }
+
+    public int getFishInNets() {
+        return fishInNets;
+    }
+
+    public long getFishPerHour() {
+        return fishPerHour;
+    }
+
+    // Average fish caught per shoal fished, -1 before the first shoal has been left
+    public long getFishPerShoal() {
+        return fishPerShoal;
+    }
+
+    public long getTotalFish() {
+        return totalFish;
+    }
+
+    public int getTotalNetSize() {
+        return totalNetSize;
+    }
+
+    public boolean isNetsFull() {
+        return netsFull;
+    }
+
+    public GameObject getNetObject(int netIndex) {
+        return netObjects[netIndex];
+    }
+
+    // Depth setting of the net, null before its varbit has been read
+    public Net.NetDepth getNetSetting(int netIndex) {
+        return netSettings[netIndex];
+    }
+
+    public int getNetDepth(int netIndex) {
+        return netDepths[netIndex];
+    }
+
+    public boolean isNetWrongDepth(int netIndex) {
+        return netWrongDepth[netIndex];
+    }
+
+    public int getPlayerBoatType() {
+        return playerBoatType;
+    }
+
+    public WorldEntity getPlayerBoat() {
+        return playerBoat;
+    }
+}
@@ -0,0 +1,37 @@
+package com.deepseatrawling;
+
+import java.lang.management.ManagementFactory;
+
+/*
+ * Measures what a warmed-up hot path allocates on the calling thread, for the tests that hold
+ * per-tick and per-message code to zero allocation.
+ */
+final class Allocations
+{
+	// Leaves room for the bean's own bookkeeping, far below one object per call
+	static final long LIMIT = 1024;
+
+	private Allocations()
+	{
+	}
+
+	// Bytes the current thread allocated while running work, -1 if the JVM cannot tell
+	static long measure(Runnable work)
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+		{
+			return -1;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+		{
+			return -1;
+		}
+
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		work.run();
+		return threads.getThreadAllocatedBytes(thread) - before;
+	}
+}
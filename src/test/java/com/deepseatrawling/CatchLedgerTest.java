@@ -0,0 +1,144 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CatchLedgerTest
+{
+	private static final long MINUTE = 60 * 1000;
+
+	private final CatchMessageParser parser = new CatchMessageParser();
+	private CatchLedger ledger;
+	private ShoalData haddock;
+	private ShoalData marlin;
+
+	@Before
+	public void createLedger()
+	{
+		ledger = new CatchLedger();
+		ShoalRouteRegistry registry = new ShoalRouteRegistry();
+		haddock = new ShoalData(14, null, registry);
+		haddock.setSpecies(ShoalData.ShoalSpecies.HADDOCK);
+		marlin = new ShoalData(15, null, registry);
+		marlin.setSpecies(ShoalData.ShoalSpecies.MARLIN);
+	}
+
+	@Test
+	public void historyKeepsTheMostRecentCatches()
+	{
+		int catches = CatchLedger.HISTORY_SIZE + 10;
+		for (int i = 1; i <= catches; i++)
+		{
+			ledger.record(i, i % 2 == 0 ? haddock : null, CatchLedger.YOU, i, i * 1000L);
+		}
+
+		assertEquals(CatchLedger.HISTORY_SIZE, ledger.getHistorySize());
+		assertEquals(catches, ledger.getHistoryQuantity(0));
+		assertEquals(catches, ledger.getHistoryTick(0));
+		assertEquals(catches * 1000L, ledger.getHistoryTime(0));
+		assertSame(ShoalData.ShoalSpecies.HADDOCK, ledger.getHistorySpecies(0));
+		assertNull(ledger.getHistorySpecies(1));
+		// The oldest kept is the first one not overwritten when the ring wrapped
+		assertEquals(11, ledger.getHistoryQuantity(CatchLedger.HISTORY_SIZE - 1));
+		assertEquals((long) catches * (catches + 1) / 2, ledger.getTotalFish());
+	}
+
+	@Test
+	public void totalsBySpeciesAndCrew()
+	{
+		int crew = crewIndex("Sailor Jo catches two Haddock.");
+		ledger.record(3, haddock, CatchLedger.YOU, 1, 0);
+		ledger.record(2, haddock, crew, 2, 0);
+		ledger.record(5, marlin, CatchLedger.YOU, 3, 0);
+
+		assertEquals(5, ledger.getSpeciesTotal(ShoalData.ShoalSpecies.HADDOCK));
+		assertEquals(5, ledger.getSpeciesTotal(ShoalData.ShoalSpecies.MARLIN));
+		assertEquals(0, ledger.getSpeciesTotal(ShoalData.ShoalSpecies.BLUEFIN));
+		assertEquals(8, ledger.getCrewTotal(CatchLedger.YOU));
+		assertEquals(2, ledger.getCrewTotal(crew));
+		assertEquals("Sailor Jo", ledger.getCrewName(crew));
+		assertEquals(crew, ledger.getHistoryCrew(1));
+
+		assertEquals(10, ledger.getFishInNets());
+		ledger.emptied();
+		assertEquals(0, ledger.getFishInNets());
+		assertEquals(10, ledger.getTotalFish());
+	}
+
+	@Test
+	public void crewPastTheTableShareTheOtherCrewSlot()
+	{
+		assertEquals(CatchLedger.YOU, crewIndex("You catch a Haddock."));
+		int first = crewIndex("Crew 0 catches a Haddock.");
+		for (int i = 1; ledger.getCrewCount() < CatchLedger.MAX_CREW; i++)
+		{
+			crewIndex("Crew " + i + " catches a Haddock.");
+		}
+
+		assertEquals(CatchLedger.OTHER_CREW, crewIndex("Latecomer catches a Haddock."));
+		assertEquals(CatchLedger.OTHER_CREW, crewIndex("Another catches 3 Haddock."));
+		assertEquals(CatchLedger.MAX_CREW, ledger.getCrewCount());
+		assertEquals("Other crew", ledger.getCrewName(CatchLedger.OTHER_CREW));
+		// Names already in the table keep their own slot, and the local player is never displaced
+		assertEquals(first, crewIndex("Crew 0 catches a Haddock."));
+		assertEquals(CatchLedger.YOU, crewIndex("You catch 4 Haddock."));
+	}
+
+	@Test
+	public void fishPerHourDecaysWithoutCatches()
+	{
+		// 60 fish as one impulse into a ten minute average is 360 an hour
+		ledger.record(60, haddock, CatchLedger.YOU, 1, 0);
+		assertEquals(360, ledger.getFishPerHour(0), 1e-6);
+		assertEquals(360 / Math.E, ledger.getFishPerHour(10 * MINUTE), 1e-6);
+		assertEquals(360 / (Math.E * Math.E), ledger.getFishPerHour(20 * MINUTE), 1e-6);
+
+		// A later catch adds onto what is left
+		ledger.record(60, haddock, CatchLedger.YOU, 2, 10 * MINUTE);
+		assertEquals(360 / Math.E + 360, ledger.getFishPerHour(10 * MINUTE), 1e-6);
+	}
+
+	@Test
+	public void fishPerShoalAveragesFinishedShoals()
+	{
+		assertEquals(-1, ledger.getFishPerShoal(), 0);
+		ledger.record(4, haddock, CatchLedger.YOU, 1, 0);
+		ledger.record(6, haddock, CatchLedger.YOU, 2, 0);
+		// Another shoal's despawn does not close this one
+		ledger.endShoal(marlin.getWorldViewId());
+		assertEquals(-1, ledger.getFishPerShoal(), 0);
+
+		// Fishing a different shoal closes the first
+		ledger.record(20, marlin, CatchLedger.YOU, 3, 0);
+		assertEquals(10, ledger.getFishPerShoal(), 1e-9);
+		ledger.endShoal(marlin.getWorldViewId());
+		assertEquals(0.3 * 20 + 0.7 * 10, ledger.getFishPerShoal(), 1e-9);
+	}
+
+	@Test
+	public void resetStartsANewSession()
+	{
+		int crew = crewIndex("Sailor Jo catches a Haddock.");
+		ledger.record(5, haddock, crew, 1, 0);
+		ledger.reset();
+
+		assertEquals(0, ledger.getTotalFish());
+		assertEquals(0, ledger.getFishInNets());
+		assertEquals(0, ledger.getHistorySize());
+		assertEquals(0, ledger.getCrewTotal(crew));
+		assertNull(ledger.getCrewName(crew));
+		assertEquals(0, ledger.getFishPerHour(0), 0);
+		assertEquals(-1, ledger.getFishPerShoal(), 0);
+		assertEquals(crew, crewIndex("Someone Else catches a Haddock."));
+	}
+
+	private int crewIndex(String message)
+	{
+		parser.parse(message);
+		return ledger.crewIndex(parser);
+	}
+}
@@ -0,0 +1,130 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CatchMessageParserTest
+{
+	private static final String CORPUS = "/catch_messages.txt";
+	private static final String YOU = "You";
+	private static final String NO_CATCHER = "-";
+
+	private final List<String[]> corpus = new ArrayList<>();
+	private final CatchMessageParser parser = new CatchMessageParser();
+
+	@Before
+	public void loadCorpus() throws Exception
+	{
+		try (InputStream in = getClass().getResourceAsStream(CORPUS))
+		{
+			assertNotNull(CORPUS + " is not on the classpath", in);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty() || line.startsWith("#"))
+				{
+					continue;
+				}
+				String[] fields = line.split("\t", 4);
+				assertEquals("malformed corpus line: " + line, 4, fields.length);
+				corpus.add(fields);
+			}
+		}
+		assertFalse(corpus.isEmpty());
+	}
+
+	@Test
+	public void parsesRecordedMessages()
+	{
+		for (String[] entry : corpus)
+		{
+			String message = entry[3];
+			CatchMessageParser.Result result = parser.parse(message);
+			assertEquals(message, CatchMessageParser.Result.valueOf(entry[0]), result);
+			assertEquals(message, Integer.parseInt(entry[1]), parser.getQuantity());
+
+			if (result != CatchMessageParser.Result.CATCH && result != CatchMessageParser.Result.UNKNOWN_QUANTITY)
+			{
+				assertEquals(message, NO_CATCHER, entry[2]);
+				continue;
+			}
+			assertEquals(message, YOU.equals(entry[2]), parser.isOwnCatch());
+			if (!parser.isOwnCatch())
+			{
+				assertEquals(message, entry[2], parser.getCrewName());
+				assertTrue(message, parser.isCrewName(entry[2]));
+				assertFalse(message, parser.isCrewName(entry[2] + "x"));
+				assertFalse(message, parser.isCrewName(entry[2].substring(1)));
+			}
+		}
+	}
+
+	// Parsing runs for every chat message, so it must not allocate once warmed up
+	@Test
+	public void parsesCorpusWithoutAllocating()
+	{
+		String[] messages = messages();
+		run(messages, 20_000);
+
+		long allocated = Allocations.measure(() -> run(messages, 20_000));
+		if (allocated < 0)
+		{
+			return;
+		}
+		assertTrue("parsing allocated " + allocated + " bytes", allocated < Allocations.LIMIT);
+	}
+
+	// A coarse bound that only trips on a regression to regexes or per-message copies
+	@Test
+	public void parsesCorpusQuickly()
+	{
+		String[] messages = messages();
+		int rounds = 20_000;
+		run(messages, rounds);
+
+		long start = System.nanoTime();
+		int hits = run(messages, rounds);
+		long perMessage = (System.nanoTime() - start) / ((long) rounds * messages.length);
+		assertTrue(hits > 0);
+		assertTrue("parsing took " + perMessage + " ns per message", perMessage < 5_000);
+	}
+
+	private String[] messages()
+	{
+		String[] messages = new String[corpus.size()];
+		for (int i = 0; i < messages.length; i++)
+		{
+			messages[i] = corpus.get(i)[3];
+		}
+		return messages;
+	}
+
+	private int run(String[] messages, int rounds)
+	{
+		int hits = 0;
+		for (int round = 0; round < rounds; round++)
+		{
+			for (String message : messages)
+			{
+				if (parser.parse(message) == CatchMessageParser.Result.CATCH)
+				{
+					hits += parser.getQuantity();
+				}
+			}
+		}
+		return hits;
+	}
+}
@@ -0,0 +1,153 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DepthScheduleTest
+{
+	private static final int ROUTE = ShoalRouteRegistry.MIN_WORLD_VIEW_ID;
+
+	private final ShoalRouteRegistry registry = new ShoalRouteRegistry();
+	private final DepthSchedule schedule = new DepthSchedule();
+	private RouteTimeline timeline;
+	private ShoalData shoal;
+	private int tick;
+
+	@Before
+	public void loadRoute() throws Exception
+	{
+		registry.load();
+		timeline = registry.getTimeline(ROUTE);
+		assertFalse(timeline.isEmpty());
+		shoal = new ShoalData(ROUTE, null, registry);
+		tick = 0;
+	}
+
+	@Test
+	public void recordsByFourTileBucket()
+	{
+		double position = moveTo(10.5);
+		shoal.observeDepth(ShoalData.ShoalDepth.DEEP, tick);
+		schedule.observe(shoal);
+
+		double bucketStart = Math.floor(position / DepthSchedule.BUCKET_TILES) * DepthSchedule.BUCKET_TILES;
+		assertSame(ShoalData.ShoalDepth.DEEP, schedule.expectedAt(ROUTE, timeline, bucketStart));
+		assertSame(ShoalData.ShoalDepth.DEEP, schedule.expectedAt(ROUTE, timeline, bucketStart + DepthSchedule.BUCKET_TILES - 0.01));
+		assertNull(schedule.expectedAt(ROUTE, timeline, bucketStart - 0.01));
+		assertNull(schedule.expectedAt(ROUTE, timeline, bucketStart + DepthSchedule.BUCKET_TILES));
+		assertNull(schedule.expectedAt(ROUTE, timeline, -1));
+
+		// A later sighting at another depth overwrites the bucket
+		shoal.observeDepth(ShoalData.ShoalDepth.SHALLOW, ++tick);
+		schedule.observe(shoal);
+		assertSame(ShoalData.ShoalDepth.SHALLOW, schedule.expectedAt(ROUTE, timeline, position));
+	}
+
+	@Test
+	public void tableHasABucketPastTheEndOfTheRoute()
+	{
+		assertNull(schedule.expectedAt(ROUTE, timeline, 0));
+		String text = schedule.toText(ROUTE);
+		assertEquals((int) Math.ceil(timeline.getLength() / DepthSchedule.BUCKET_TILES) + 1, text.length());
+		// Positions at or past the end read the last bucket rather than overrunning
+		assertNull(schedule.expectedAt(ROUTE, timeline, timeline.getLength() * 2));
+	}
+
+	// The species default and UNKNOWN are guesses, not sightings, and never reach the table
+	@Test
+	public void ignoresDepthsTheRipplesDidNotShow()
+	{
+		moveTo(20.5);
+		shoal.setSpecies(ShoalData.ShoalSpecies.HADDOCK);
+		assertSame(ShoalData.ShoalDepth.SHALLOW, shoal.getDepth());
+		assertFalse(shoal.isDepthObserved());
+		schedule.observe(shoal);
+		assertNull(schedule.expectedAt(ROUTE, timeline, shoal.getProgress()));
+
+		shoal.observeDepth(ShoalData.ShoalDepth.UNKNOWN, ++tick);
+		schedule.observe(shoal);
+		assertNull(schedule.expectedAt(ROUTE, timeline, shoal.getProgress()));
+
+		shoal.observeDepth(ShoalData.ShoalDepth.MEDIUM, ++tick);
+		shoal.setDepth(ShoalData.ShoalDepth.UNKNOWN);
+		schedule.observe(shoal);
+		assertNull(schedule.expectedAt(ROUTE, timeline, shoal.getProgress()));
+	}
+
+	@Test
+	public void stampsOnlyChangesBetweenObservedDepths()
+	{
+		shoal.setSpecies(ShoalData.ShoalSpecies.HADDOCK);
+		assertEquals(-1, shoal.getDepthChangedTick());
+
+		// Arriving at a different depth from the species default is not a change
+		assertTrue(shoal.observeDepth(ShoalData.ShoalDepth.DEEP, 5));
+		assertEquals(-1, shoal.getDepthChangedTick());
+
+		// Nor is the ripple NPC despawning and coming back at the same depth
+		shoal.setDepth(ShoalData.ShoalDepth.UNKNOWN);
+		shoal.observeDepth(ShoalData.ShoalDepth.UNKNOWN, 6);
+		assertTrue(shoal.observeDepth(ShoalData.ShoalDepth.DEEP, 7));
+		assertEquals(-1, shoal.getDepthChangedTick());
+
+		assertTrue(shoal.observeDepth(ShoalData.ShoalDepth.MEDIUM, 8));
+		assertEquals(8, shoal.getDepthChangedTick());
+		assertFalse(shoal.observeDepth(ShoalData.ShoalDepth.MEDIUM, 9));
+		assertEquals(8, shoal.getDepthChangedTick());
+	}
+
+	@Test
+	public void savedTextRoundTrips()
+	{
+		assertEquals("deepseatrawlingdepths", DepthSchedule.CONFIG_GROUP);
+		double shallow = moveTo(2.5);
+		shoal.observeDepth(ShoalData.ShoalDepth.SHALLOW, ++tick);
+		schedule.observe(shoal);
+		double deep = moveTo(30.5);
+		shoal.observeDepth(ShoalData.ShoalDepth.DEEP, ++tick);
+		schedule.observe(shoal);
+
+		String text = schedule.toText(ROUTE);
+		assertEquals('S', text.charAt((int) (shallow / DepthSchedule.BUCKET_TILES)));
+		assertEquals('D', text.charAt((int) (deep / DepthSchedule.BUCKET_TILES)));
+		assertEquals('.', text.charAt(text.length() - 1));
+
+		// Read back before anything is observed, as after a restart
+		DepthSchedule restored = new DepthSchedule();
+		restored.restore(ROUTE, text);
+		assertSame(ShoalData.ShoalDepth.SHALLOW, restored.expectedAt(ROUTE, timeline, shallow));
+		assertSame(ShoalData.ShoalDepth.DEEP, restored.expectedAt(ROUTE, timeline, deep));
+		assertEquals(text, restored.toText(ROUTE));
+	}
+
+	// A table saved for a route of another length no longer lines up with it
+	@Test
+	public void discardsSavedTableOfTheWrongLength()
+	{
+		assertNull(schedule.expectedAt(ROUTE, timeline, 0));
+		char[] full = new char[schedule.toText(ROUTE).length() + 1];
+		Arrays.fill(full, 'D');
+
+		DepthSchedule restored = new DepthSchedule();
+		restored.restore(ROUTE, new String(full));
+		assertNull(restored.expectedAt(ROUTE, timeline, 0));
+		assertEquals(full.length - 1, restored.toText(ROUTE).length());
+		assertEquals(-1, restored.toText(ROUTE).indexOf('D'));
+	}
+
+	// Moves the shoal onto the route at an arc position and returns where it was placed
+	private double moveTo(double position)
+	{
+		shoal.updateProgress(timeline.getXAt(position), timeline.getYAt(position), true, ++tick);
+		assertTrue(shoal.getCursor().isValid());
+		return shoal.getProgress();
+	}
+}
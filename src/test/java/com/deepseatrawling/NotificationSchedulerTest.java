@@ -0,0 +1,121 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NotificationSchedulerTest
+{
+	private static final NotificationScheduler.Type NET_FULL = NotificationScheduler.Type.NET_FULL;
+	private static final NotificationScheduler.Type DEPTH_MISMATCH = NotificationScheduler.Type.DEPTH_MISMATCH;
+	private static final NotificationScheduler.Type SHOAL_STOPPING = NotificationScheduler.Type.SHOAL_STOPPING;
+
+	private final List<String> sent = new ArrayList<>();
+	private NotificationScheduler scheduler;
+
+	@Before
+	public void createScheduler()
+	{
+		sent.clear();
+		scheduler = new NotificationScheduler(sent::add);
+	}
+
+	@Test
+	public void firesOnceWhileTheConditionHolds()
+	{
+		for (int tick = 0; tick < 200; tick++)
+		{
+			scheduler.update(DEPTH_MISMATCH, true);
+			scheduler.flush(tick);
+		}
+		assertEquals(1, sent.size());
+		assertEquals(DEPTH_MISMATCH.getMessage(), sent.get(0));
+	}
+
+	@Test
+	public void rearmsOnTheNextRisingEdge()
+	{
+		tick(0, DEPTH_MISMATCH, true);
+		tick(20, DEPTH_MISMATCH, false);
+		tick(21, DEPTH_MISMATCH, true);
+		assertEquals(2, sent.size());
+	}
+
+	// A rising edge inside the cooldown waits for it to pass, as long as the condition still holds
+	@Test
+	public void cooldownDelaysTheNextNotification()
+	{
+		tick(0, DEPTH_MISMATCH, true);
+		tick(3, DEPTH_MISMATCH, false);
+		tick(5, DEPTH_MISMATCH, true);
+		assertEquals(1, sent.size());
+		tick(9, DEPTH_MISMATCH, true);
+		assertEquals(1, sent.size());
+		tick(10, DEPTH_MISMATCH, true);
+		assertEquals(2, sent.size());
+	}
+
+	@Test
+	public void pendingIsDroppedWhenTheConditionClears()
+	{
+		tick(0, NET_FULL, true);
+		tick(10, NET_FULL, false);
+		tick(11, NET_FULL, true);
+		tick(20, NET_FULL, false);
+		for (int tick = 21; tick < 200; tick++)
+		{
+			tick(tick, NET_FULL, false);
+		}
+		assertEquals(1, sent.size());
+	}
+
+	@Test
+	public void coalescesEverythingDueOnOneTick()
+	{
+		scheduler.update(NET_FULL, true);
+		scheduler.update(DEPTH_MISMATCH, true);
+		scheduler.update(SHOAL_STOPPING, true);
+		scheduler.flush(0);
+		assertEquals(1, sent.size());
+		assertEquals(NET_FULL.getMessage() + " " + DEPTH_MISMATCH.getMessage() + " " + SHOAL_STOPPING.getMessage(), sent.get(0));
+	}
+
+	@Test
+	public void capsNotificationsPerWindow()
+	{
+		// SHOAL_STOPPING rises every 20 ticks, clear of its cooldown
+		for (int tick = 0; tick < NotificationScheduler.WINDOW_TICKS; tick += 20)
+		{
+			tick(tick, SHOAL_STOPPING, false);
+			tick(tick + 1, SHOAL_STOPPING, true);
+		}
+		assertEquals(NotificationScheduler.MAX_PER_WINDOW, sent.size());
+
+		// The fifth stays pending until the first notification leaves the window
+		tick(NotificationScheduler.WINDOW_TICKS, SHOAL_STOPPING, true);
+		assertEquals(NotificationScheduler.MAX_PER_WINDOW, sent.size());
+		tick(NotificationScheduler.WINDOW_TICKS + 1, SHOAL_STOPPING, true);
+		assertEquals(NotificationScheduler.MAX_PER_WINDOW + 1, sent.size());
+	}
+
+	@Test
+	public void resetForgetsCooldownsAndTheWindow()
+	{
+		tick(0, DEPTH_MISMATCH, true);
+		scheduler.reset();
+		tick(1, DEPTH_MISMATCH, true);
+		assertEquals(2, sent.size());
+		assertTrue(sent.get(1).startsWith(DEPTH_MISMATCH.getMessage()));
+	}
+
+	private void tick(int tick, NotificationScheduler.Type type, boolean condition)
+	{
+		scheduler.update(type, condition);
+		scheduler.flush(tick);
+	}
+}
@@ -0,0 +1,157 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RouteGeometryTest
+{
+	private static final int SMOOTHING = 3;
+
+	private final ShoalRouteRegistry registry = new ShoalRouteRegistry();
+
+	@Before
+	public void loadRoutes() throws Exception
+	{
+		registry.load();
+	}
+
+	// Summed over every shipped path, each level drops points from the one before and keeps both ends
+	@Test
+	public void levelsSimplifyAndKeepEndpoints()
+	{
+		for (int smoothing : new int[] { 0, SMOOTHING })
+		{
+			long[] totals = null;
+			for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+			{
+				ShoalRoute path = registry.getPath(id);
+				if (path.size() < 2)
+				{
+					continue;
+				}
+				RouteGeometry geometry = RouteGeometry.build(path, smoothing);
+				if (totals == null)
+				{
+					totals = new long[geometry.getLevelCount()];
+				}
+				RouteGeometry.Level full = geometry.getLevel(0);
+				int last = full.size() - 1;
+				assertEquals(0, full.getSourceIndex(0));
+				// A repeated final point is dropped, so the last vertex comes from the first copy of it
+				int source = full.getSourceIndex(last);
+				assertEquals(path.getX(path.size() - 1), path.getX(source));
+				assertEquals(path.getY(path.size() - 1), path.getY(source));
+
+				for (int l = 0; l < geometry.getLevelCount(); l++)
+				{
+					RouteGeometry.Level level = geometry.getLevel(l);
+					String where = "route " + id + " level " + l;
+					totals[l] += level.size();
+					if (l > 0)
+					{
+						assertTrue(where, level.size() <= geometry.getLevel(l - 1).size());
+					}
+					assertTrue(where, level.size() >= 2);
+					int end = level.size() - 1;
+					assertEquals(where, full.getX(0), level.getX(0));
+					assertEquals(where, full.getY(0), level.getY(0));
+					assertEquals(where, full.getX(last), level.getX(end));
+					assertEquals(where, full.getY(last), level.getY(end));
+				}
+			}
+			for (int l = 1; l < totals.length; l++)
+			{
+				assertTrue("smoothing " + smoothing + " level " + l + " kept " + totals[l] + " of " + totals[l - 1], totals[l] < totals[l - 1]);
+			}
+		}
+	}
+
+	// Arrows sit every ARROW_SPACING along the line, the first half a spacing in
+	@Test
+	public void arrowsAreEvenlySpaced()
+	{
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			ShoalRoute path = registry.getPath(id);
+			if (path.size() < 2)
+			{
+				continue;
+			}
+			RouteGeometry.Level level = RouteGeometry.build(path, SMOOTHING).getLevel(0);
+			double travelled = 0;
+			double expected = RouteGeometry.ARROW_SPACING / 2.0;
+			for (int i = 0; i + 1 < level.size(); i++)
+			{
+				double length = Math.hypot(level.getX(i + 1) - level.getX(i), level.getY(i + 1) - level.getY(i));
+				for (int arrow = level.getArrowStart(i); arrow < level.getArrowStart(i + 1); arrow++)
+				{
+					float fraction = level.getArrowFraction(arrow);
+					assertTrue(fraction >= 0 && fraction <= 1);
+					assertEquals("route " + id + " arrow " + arrow, expected, travelled + fraction * length, 0.5);
+					expected += RouteGeometry.ARROW_SPACING;
+				}
+				travelled += length;
+			}
+			// Every spacing that fits on the line got its arrow
+			assertTrue("route " + id, expected > travelled);
+		}
+	}
+
+	// A loop has no ends, so smoothing treats its seam like any other point
+	@Test
+	public void smoothsLoopsAcrossTheSeam()
+	{
+		int points = 64;
+		double radius = 40;
+		int[] xs = new int[points + 1];
+		int[] ys = new int[points + 1];
+		for (int i = 0; i <= points; i++)
+		{
+			double angle = 2 * Math.PI * i / points;
+			xs[i] = (int) Math.round(3200 + radius * Math.cos(angle));
+			ys[i] = (int) Math.round(3200 + radius * Math.sin(angle));
+		}
+		RouteGeometry.Level level = RouteGeometry.build(new ShoalRoute(xs, ys, new int[points + 1]), 5).getLevel(0);
+		assertEquals(points + 1, level.size());
+		assertEquals(level.getX(0), level.getX(points));
+		assertEquals(level.getY(0), level.getY(points));
+
+		// Smoothing pulls the whole circle in by the same amount, the seam included
+		double seam = radiusAt(level, 0);
+		double opposite = radiusAt(level, points / 2);
+		assertTrue(opposite < radius - 1);
+		assertEquals(opposite, seam, 0.25);
+		for (int i = 1; i < points; i++)
+		{
+			assertEquals("point " + i, opposite, radiusAt(level, i), 0.75);
+		}
+	}
+
+	// An open path keeps its ends where they were recorded
+	@Test
+	public void openPathsKeepTheirEnds()
+	{
+		int[] xs = { 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22 };
+		int[] ys = { 10, 10, 11, 13, 16, 16, 15, 13, 12, 12, 13, 15, 18 };
+		RouteGeometry.Level level = RouteGeometry.build(new ShoalRoute(xs, ys, new int[xs.length]), 5).getLevel(0);
+		int last = xs.length - 1;
+		assertEquals(local(xs[0]), level.getX(0));
+		assertEquals(local(ys[0]), level.getY(0));
+		assertEquals(local(xs[last]), level.getX(last));
+		assertEquals(local(ys[last]), level.getY(last));
+	}
+
+	// Distance from the centre of the test circle, in tiles
+	private static double radiusAt(RouteGeometry.Level level, int index)
+	{
+		return Math.hypot(level.getX(index) - local(3200), level.getY(index) - local(3200)) / 128;
+	}
+
+	private static int local(int tile)
+	{
+		return tile * 128 + 64;
+	}
+}
@@ -0,0 +1,176 @@
+package com.deepseatrawling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RouteTimelineTest
+{
+	// Walk step along each path, in tiles
+	private static final double STEP = 0.25;
+	// getXAt/getYAt round to whole local units, 1/128 of a tile
+	private static final double LOCAL_ERROR = 0.01;
+
+	private final ShoalRouteRegistry registry = new ShoalRouteRegistry();
+
+	@Before
+	public void loadRoutes() throws Exception
+	{
+		registry.load();
+	}
+
+	// Walks every shipped path twice round, past the loop seam, and tracks the walker with one cursor
+	@Test
+	public void trackFollowsEveryPath()
+	{
+		int routes = 0;
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			RouteTimeline timeline = registry.getTimeline(id);
+			if (timeline.isEmpty())
+			{
+				continue;
+			}
+			routes++;
+
+			RouteCursor cursor = new RouteCursor();
+			for (double walked = 0; walked < 2 * timeline.getLength(); walked += STEP)
+			{
+				int x = timeline.getXAt(walked);
+				int y = timeline.getYAt(walked);
+				String where = "route " + id + " at " + walked;
+				assertTrue(where, timeline.track(x, y, cursor));
+				assertTrue(where + " off path by " + cursor.getDistance(), cursor.getDistance() < LOCAL_ERROR);
+
+				// Where the path crosses itself the answer must stay with the walker
+				double gap = Math.min(timeline.distance(walked, cursor.getPosition()), timeline.distance(cursor.getPosition(), walked));
+				assertTrue(where + " tracked at " + cursor.getPosition(), gap < STEP);
+			}
+		}
+		assertEquals(16, routes);
+	}
+
+	@Test
+	public void locateFindsEveryPoint()
+	{
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			RouteTimeline timeline = registry.getTimeline(id);
+			ShoalRoute path = timeline.getPath();
+			for (int i = 0; i < path.size(); i++)
+			{
+				RouteCursor cursor = new RouteCursor();
+				int x = path.getX(i) * 128 + 64;
+				int y = path.getY(i) * 128 + 64;
+				assertTrue("route " + id + " point " + i, timeline.locate(x, y, cursor));
+				assertEquals("route " + id + " point " + i, 0, cursor.getDistance(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void wrapAndDistanceCrossTheSeam()
+	{
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			RouteTimeline timeline = registry.getTimeline(id);
+			if (timeline.isEmpty())
+			{
+				continue;
+			}
+			double length = timeline.getLength();
+			assertEquals(1, timeline.wrap(length + 1), 1e-9);
+			assertEquals(length - 1, timeline.wrap(-1), 1e-9);
+			assertEquals(0, timeline.wrap(length), 1e-9);
+			assertEquals(2, timeline.distance(length - 1, 1), 1e-9);
+			assertEquals(length - 2, timeline.distance(1, length - 1), 1e-9);
+			assertEquals(timeline.segmentAt(0.5), timeline.segmentAt(length + 0.5));
+		}
+	}
+
+	@Test
+	public void nextStopWrapsRoundTheLoop()
+	{
+		int withStops = 0;
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			RouteTimeline timeline = registry.getTimeline(id);
+			int stops = timeline.getStopCount();
+			if (timeline.isEmpty() || stops == 0)
+			{
+				assertEquals(-1, timeline.nextStop(0));
+				continue;
+			}
+			withStops++;
+			double length = timeline.getLength();
+			String route = "route " + id;
+
+			for (int k = 1; k < stops; k++)
+			{
+				assertTrue(route + " stops out of order", timeline.getStopArc(k) >= timeline.getStopArc(k - 1));
+			}
+			// Sitting on a stop, the next one is strictly ahead
+			for (int k = 0; k < stops; k++)
+			{
+				int next = timeline.nextStop(timeline.getStopArc(k));
+				assertTrue(route + " stop " + k, next == (k + 1) % stops || timeline.getStopArc(next) > timeline.getStopArc(k));
+				assertEquals(route + " stop order", k, timeline.getStopOrder(timeline.getStopIndex(k)));
+			}
+
+			// Past the last stop the next is the first, whichever side of the seam
+			double last = timeline.getStopArc(stops - 1);
+			assertEquals(route, 0, timeline.nextStop(last));
+			assertEquals(route, 0, timeline.nextStop(length - 1e-6));
+			assertEquals(route, timeline.nextStop(-1e-6), timeline.nextStop(length - 1e-6));
+			assertEquals(route, timeline.nextStop(last + 1e-6), timeline.nextStop(last + 1e-6 + length));
+			assertEquals(route, length - last + timeline.getStopArc(0), timeline.distance(last, timeline.getStopArc(0)), 1e-9);
+		}
+		assertTrue(withStops > 0);
+	}
+
+	// track runs for every moving shoal each tick, so it must not allocate once warmed up
+	@Test
+	public void trackDoesNotAllocate()
+	{
+		RouteTimeline timeline = registry.getTimeline(ShoalRouteRegistry.MIN_WORLD_VIEW_ID);
+		int samples = (int) (timeline.getLength() / STEP);
+		int[] xs = new int[samples];
+		int[] ys = new int[samples];
+		for (int i = 0; i < samples; i++)
+		{
+			xs[i] = timeline.getXAt(i * STEP);
+			ys[i] = timeline.getYAt(i * STEP);
+		}
+		RouteCursor cursor = new RouteCursor();
+		walk(timeline, xs, ys, cursor, 200);
+
+		int[] tracked = new int[1];
+		long allocated = Allocations.measure(() -> tracked[0] = walk(timeline, xs, ys, cursor, 200));
+		if (allocated < 0)
+		{
+			return;
+		}
+		assertEquals(200 * samples, tracked[0]);
+		assertTrue("tracking allocated " + allocated + " bytes", allocated < Allocations.LIMIT);
+		assertFalse(cursor.getPosition() < 0);
+	}
+
+	private static int walk(RouteTimeline timeline, int[] xs, int[] ys, RouteCursor cursor, int laps)
+	{
+		int tracked = 0;
+		for (int lap = 0; lap < laps; lap++)
+		{
+			for (int i = 0; i < xs.length; i++)
+			{
+				if (timeline.track(xs[i], ys[i], cursor))
+				{
+					tracked++;
+				}
+			}
+		}
+		return tracked;
+	}
+}
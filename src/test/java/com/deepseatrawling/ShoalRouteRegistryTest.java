@@ -0,0 +1,88 @@
+package com.deepseatrawling;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShoalRouteRegistryTest
+{
+	// The editable source, read from the source tree since it is left out of the built resources
+	private static final File ROUTES_SOURCE = new File("src/main/resources/shoals.properties");
+
+	// Decodes the shipped shoals.bin and checks every route against shoals.properties, parsed here independently
+	@Test
+	public void binaryRoutesMatchTextSource() throws Exception
+	{
+		try (InputStream in = getClass().getResourceAsStream("/shoals.bin"))
+		{
+			assertNotNull("shoals.bin is not on the classpath", in);
+		}
+
+		ShoalRouteRegistry registry = new ShoalRouteRegistry();
+		registry.load();
+
+		Properties properties = readProperties();
+		int routes = 0;
+		for (int id = ShoalRouteRegistry.MIN_WORLD_VIEW_ID; id <= ShoalRouteRegistry.MAX_WORLD_VIEW_ID; id++)
+		{
+			assertRoute("shoalpath." + id, parse(properties.getProperty("shoalpath." + id)), registry.getPath(id));
+			assertRoute("shoalstops." + id, parse(properties.getProperty("shoalstops." + id)), registry.getStops(id));
+			if (!registry.getPath(id).isEmpty())
+			{
+				routes++;
+			}
+		}
+		assertEquals(16, routes);
+	}
+
+	private Properties readProperties() throws Exception
+	{
+		Properties properties = new Properties();
+		assertTrue(ROUTES_SOURCE + " is missing", ROUTES_SOURCE.isFile());
+		try (InputStream in = new FileInputStream(ROUTES_SOURCE))
+		{
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	private static List<int[]> parse(String value)
+	{
+		List<int[]> points = new ArrayList<>();
+		if (value == null)
+		{
+			return points;
+		}
+		for (String token : value.split("\\|"))
+		{
+			if (token.trim().isEmpty())
+			{
+				continue;
+			}
+			String[] parts = token.split(",");
+			points.add(new int[]{
+				Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim())
+			});
+		}
+		return points;
+	}
+
+	private static void assertRoute(String name, List<int[]> expected, ShoalRoute actual)
+	{
+		assertEquals(name + " size", expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			int[] point = expected.get(i);
+			assertTrue(name + " point " + i, point[0] == actual.getX(i) && point[1] == actual.getY(i) && point[2] == actual.getPlane(i));
+		}
+	}
+}